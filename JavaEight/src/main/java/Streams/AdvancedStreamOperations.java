@@ -4,6 +4,7 @@ import java.util.*;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class AdvancedStreamOperations {
 
@@ -23,14 +24,34 @@ public class AdvancedStreamOperations {
         System.out.println("groupPeople EXAMPLE:");
         groupPeople(people);
 
+        // groups by the int age without boxing it, with ages as indexes into an array of buckets
+        System.out.println("groupPeopleByAge EXAMPLE:");
+        groupPeopleByAge(people);
+
+        // groups in parallel into one shared map of per-key accumulators, nothing to merge between the forks
+        System.out.println("groupPeopleConcurrently EXAMPLE:");
+        groupPeopleConcurrently(people);
+
         // Collectors method math options as average and numbers summary
         System.out.println("mathCollectorOperation EXAMPLE:");
         mathCollectorOperation(people);
 
+        // average, min, max, sum, variance and standard deviation of the ages in one pass
+        System.out.println("fusedStatistics EXAMPLE:");
+        fusedStatistics(people);
+
+        // the same people stored column by column, scans over an int[] and Person objects only on demand
+        System.out.println("personTable EXAMPLE:");
+        personTable(people);
+
         // four ingredients of a collector: supplier, an accumulator, a combiner and a finisher
         System.out.println("allCollectorCombination EXAMPLE:");
         allCollectorCombination(people);
 
+        // the same upper-cased names, joined without copying them again at every merge of a parallel stream
+        System.out.println("chunkedJoining EXAMPLE:");
+        chunkedJoining(people);
+
         // if we want to transform one object into multiple others or none at all then use flatMap
         System.out.println("flatMapper EXAMPLE:");
         flatMapper();
@@ -39,10 +60,18 @@ public class AdvancedStreamOperations {
         System.out.println("fasterFlatMapper EXAMPLE:");
         fasterFlatMapper();
 
+        // the bars are pushed straight into the stream, no list per foo and no stream per list
+        System.out.println("pushFlatMapper EXAMPLE:");
+        pushFlatMapper();
+
         // the first reducer is reducing a stream of elements to exactly one element of the stream
         System.out.println("reduceToOneElement EXAMPLE:");
         reduceToOneElement(people);
 
+        // the k oldest persons, ties go to the person that comes first, also in parallel
+        System.out.println("topKOldest EXAMPLE:");
+        topKOldest(people);
+
         // construct a new Person with the aggregated names and ages from all other persons in the stream
         System.out.println("aggregateNamesAges EXAMPLE:");
         aggregateNamesAges(people);
@@ -50,6 +79,10 @@ public class AdvancedStreamOperations {
         // add age of all people in the list
         System.out.println("ageSum EXAMPLE:");
         ageSum(people);
+
+        // the same two aggregations as a mutable reduction: correct for parallel streams, no copying of the names
+        System.out.println("aggregateCollected EXAMPLE:");
+        aggregateCollected(people);
     }
 
     static void personFiltered(List<Person> personList){
@@ -66,6 +99,22 @@ public class AdvancedStreamOperations {
         personByAge.forEach((age, p) -> System.out.format("age %s: %s\n", age, p));
     }
 
+    static void groupPeopleByAge(List<Person> personList){
+        LongGroups<Person> personByAge = personList.stream().collect(PrimitiveGrouping.groupingByInt(p -> p.age, 0, 150));
+        personByAge.forEach((age, p) -> System.out.format("age %s: %s\n", age, p));
+
+        LongSums countByAge = personList.stream().collect(PrimitiveGrouping.countingByInt(p -> p.age, 0, 150));
+        System.out.println("count by age: " + countByAge); //{18=1, 23=2, 12=1}
+    }
+
+    static void groupPeopleConcurrently(List<Person> personList){
+        Map<Integer, List<Person>> personByAge = personList.parallelStream().collect(StripedGrouping.groupingBy(p -> p.age));
+        personByAge.forEach((age, p) -> System.out.format("age %s: %s\n", age, p));
+
+        Map<Integer, Long> countByAge = personList.parallelStream().collect(StripedGrouping.counting(p -> p.age));
+        System.out.println("count by age: " + countByAge); //{18=1, 23=2, 12=1}
+    }
+
     static void mathCollectorOperation(List<Person> personList){
         Double averageAge = personList.stream().collect(Collectors.averagingInt(p -> p.age));
         System.out.println("Average: " + averageAge);
@@ -74,6 +123,22 @@ public class AdvancedStreamOperations {
         System.out.println("Age summary: " + ageSummary); //{count=4, sum=76, min=12, average=19.000000, max=23}
     }
 
+    static void fusedStatistics(List<Person> personList){
+        ColumnStatistics ageStatistics = personList.stream().collect(ColumnStatistics.ofInt(p -> p.age));
+        System.out.println("Age statistics: " + ageStatistics); //{count=4, sum=76, min=12, average=19, max=23, variance=20.5, standardDeviation=4.53}
+        System.out.println("Standard deviation: " + ageStatistics.getStandardDeviation());
+    }
+
+    static void personTable(List<Person> personList){
+        PersonTable table = PersonTable.from(personList);
+        System.out.println("age sum: " + table.ageSum()); //76
+        System.out.println("Age summary: " + table.ages().summaryStatistics());
+
+        PersonTable.Selection adultsWithP = table.selectName(table.selectAge(age -> age >= 18), name -> name.startsWith("P"));
+        System.out.println("average age: " + table.ages(adultsWithP).average().orElse(0)); //23.0
+        System.out.println(table.rows(adultsWithP).collect(Collectors.toList())); //[Peter, Pamela]
+    }
+
     static void allCollectorCombination(List<Person> personList){
         // creation of a new result container (supplier())
         // incorporating a new data element into a result container (accumulator())
@@ -92,6 +157,13 @@ public class AdvancedStreamOperations {
         System.out.println(names); // MAX + PETER + PAMELA + DAVID
     }
 
+    static void chunkedJoining(List<Person> personList){
+        String names = personList.parallelStream()
+                .map(p -> p.name)
+                .collect(ChunkedJoiner.joiningUpperCase(" + "));
+        System.out.println(names); // MAX + PETER + PAMELA + DAVID
+    }
+
 
     //FLATMAP
     // FlatMap transforms each element of the stream into a stream of other objects
@@ -143,6 +215,16 @@ public class AdvancedStreamOperations {
                 .forEach(b -> System.out.println(b.name));
     }
 
+    static void pushFlatMapper(){
+        Stream<Foo> foos = IntStream.range(1, 4).mapToObj(i -> new Foo("Foo" + i));
+        Flattening.<Foo, Bar>mapMulti(foos, (f, sink) -> {
+                    for (int i = 1; i < 4; i++) {
+                        sink.accept(new Bar("Bar" + i + "<- " + f.name));
+                    }
+                })
+                .forEach(b -> System.out.println(b.name));
+    }
+
 
     //REDUCE
     // reduction operation combines all elements of the stream into a single result
@@ -153,6 +235,14 @@ public class AdvancedStreamOperations {
                 .ifPresent(System.out::println); // output: Pamela
     }
 
+    static void topKOldest(List<Person> personList){
+        List<Person> oldest = personList.parallelStream().collect(TopK.largestByInt(2, p -> p.age));
+        System.out.println(oldest); // [Peter, Pamela]
+
+        List<Person> youngest = personList.parallelStream().collect(TopK.smallest(1, Comparator.comparing(p -> p.age)));
+        System.out.println(youngest); // [David]
+    }
+
     static void aggregateNamesAges(List<Person> personList){
         // The second reduce method accepts both an identity value and a BinaryOperator accumulator.
         Person result = personList.stream()
@@ -180,4 +270,14 @@ public class AdvancedStreamOperations {
         System.out.println("the age sum is: " + ageSum); //76
     }
 
+    static void aggregateCollected(List<Person> personList){
+        // collect gives every thread its own PersonAggregate and combines them, the list is not modified
+        PersonAggregate aggregate = personList.parallelStream()
+                .collect(PersonAggregate::new, PersonAggregate::accept, PersonAggregate::combine);
+        System.out.println(aggregate); //name=MaxPeterPamelaDavid; age=76; count=4
+
+        long ageSum = personList.parallelStream().collect(PersonAggregate.collector()).getAgeSum();
+        System.out.println("the age sum is: " + ageSum); //76
+    }
+
 }
@@ -54,6 +54,15 @@ public class BasicStreamingTools {
         Optional<String> reduced = stringCollection.stream().sorted().reduce((s1, s2) -> s1 + "#" + s2);
         reduced.ifPresent(System.out::println);
 
+        //prefix index
+        // the startsWith filters above, answered by binary search in a sorted copy instead of a scan
+        System.out.println("Results from Prefix Index:");
+        PrefixIndex index = PrefixIndex.of(stringCollection);
+        index.stream("a").forEach(System.out::println); // aaa1, aaa2
+        System.out.println(index.count("b")); // 3
+        index.add("bbb4");
+        System.out.println(index.range("b")); // [bbb1, bbb2, bbb3, bbb4]
+
     }
 
 }
@@ -0,0 +1,146 @@
+package Streams;
+
+import java.util.stream.Collector;
+
+public final class ChunkedJoiner {
+    // A joining collector whose combiner does not copy characters:
+    //
+    //   String names = people.parallelStream().map(p -> p.name).collect(ChunkedJoiner.joiningUpperCase(" + "));
+    //
+    // The accumulator only keeps references to the elements, in a linked list of chunks, together with their
+    // total length. Combining two forks links the second list behind the first (O(1)), where StringJoiner.merge
+    // copies everything the right fork has collected at every level. The finisher computes the exact length once
+    // and copies every element a single time into one char[], applying the case transform there instead of
+    // allocating a toUpperCase() String per element.
+    //
+    // The transform maps code point by code point (Character.toUpperCase(int)), so it never changes the length:
+    // unlike String.toUpperCase it keeps 'ß' as it is and ignores the locale.
+
+    private static final int FIRST_CHUNK = 16;
+    private static final int MAX_CHUNK = 1024;
+    private static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+
+    private enum Case { NONE, UPPER, LOWER }
+
+    private ChunkedJoiner() {}
+
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter) {
+        return joining(delimiter, "", "", Case.NONE);
+    }
+
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter, CharSequence prefix, CharSequence suffix) {
+        return joining(delimiter, prefix, suffix, Case.NONE);
+    }
+
+    public static Collector<CharSequence, ?, String> joiningUpperCase(CharSequence delimiter) {
+        return joining(delimiter, "", "", Case.UPPER);
+    }
+
+    public static Collector<CharSequence, ?, String> joiningLowerCase(CharSequence delimiter) {
+        return joining(delimiter, "", "", Case.LOWER);
+    }
+
+    private static Collector<CharSequence, ?, String> joining(CharSequence delimiter, CharSequence prefix,
+                                                              CharSequence suffix, Case transform) {
+        String d = delimiter.toString();
+        String p = prefix.toString();
+        String s = suffix.toString();
+        return Collector.of(
+                Chunks::new,
+                Chunks::add,
+                Chunks::append,
+                chunks -> chunks.join(d, p, s, transform));
+    }
+
+    private static final class Chunk {
+        final String[] items;
+        int size;
+        Chunk next;
+
+        Chunk(int capacity) {
+            items = new String[capacity];
+        }
+    }
+
+    private static final class Chunks {
+        Chunk head;
+        Chunk tail;
+        long count;
+        long length;
+
+        void add(CharSequence element) {
+            // a String is kept as it is, anything mutable is copied now, like StringJoiner does
+            String item = String.valueOf(element);
+            if (tail == null) {
+                head = tail = new Chunk(FIRST_CHUNK);
+            } else if (tail.size == tail.items.length) {
+                Chunk chunk = new Chunk(Math.min(MAX_CHUNK, tail.items.length * 2));
+                tail.next = chunk;
+                tail = chunk;
+            }
+            tail.items[tail.size++] = item;
+            count++;
+            length += item.length();
+        }
+
+        // links the other chunks behind these, the other container is not used afterwards
+        Chunks append(Chunks other) {
+            if (other.head == null) {
+                return this;
+            }
+            if (head == null) {
+                return other;
+            }
+            tail.next = other.head;
+            tail = other.tail;
+            count += other.count;
+            length += other.length;
+            return this;
+        }
+
+        String join(String delimiter, String prefix, String suffix, Case transform) {
+            long total = prefix.length() + length + suffix.length()
+                    + (count == 0 ? 0 : (count - 1) * delimiter.length());
+            if (total > MAX_LENGTH) {
+                throw new OutOfMemoryError("Joined length " + total + " exceeds the maximum String length");
+            }
+            char[] out = new char[(int) total];
+            prefix.getChars(0, prefix.length(), out, 0);
+            int position = prefix.length();
+            boolean first = true;
+            for (Chunk chunk = head; chunk != null; chunk = chunk.next) {
+                for (int i = 0; i < chunk.size; i++) {
+                    if (!first) {
+                        delimiter.getChars(0, delimiter.length(), out, position);
+                        position += delimiter.length();
+                    }
+                    first = false;
+                    String item = chunk.items[i];
+                    item.getChars(0, item.length(), out, position);
+                    if (transform != Case.NONE) {
+                        changeCase(out, position, position + item.length(), transform == Case.UPPER);
+                    }
+                    position += item.length();
+                }
+            }
+            suffix.getChars(0, suffix.length(), out, position);
+            return new String(out);
+        }
+    }
+
+    private static void changeCase(char[] chars, int from, int to, boolean upper) {
+        for (int i = from; i < to; i++) {
+            char c = chars[i];
+            if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(chars[i + 1])) {
+                int codePoint = Character.toCodePoint(c, chars[i + 1]);
+                int changed = upper ? Character.toUpperCase(codePoint) : Character.toLowerCase(codePoint);
+                if (Character.isSupplementaryCodePoint(changed)) {
+                    Character.toChars(changed, chars, i);
+                }
+                i++;
+            } else {
+                chars[i] = upper ? Character.toUpperCase(c) : Character.toLowerCase(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package Streams;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+public final class ColumnStatistics {
+    // Count, sum, min, max, average, variance and standard deviation of one column, collected in a single pass:
+    //
+    //   ColumnStatistics ages = people.stream().collect(ColumnStatistics.ofInt(p -> p.age));
+    //
+    // The accumulators keep the running mean and the sum of squared deviations (Welford), parallel forks are
+    // merged with Chan's formula, so the variance does not suffer from subtracting two large sums of squares.
+    // Int and long columns are summed exactly in 128 bits (a long plus a carry word, so a long column cannot
+    // overflow it), the average is that exact sum divided by the count. Sum, min and max are reported as doubles
+    // (exact up to 2^53). Double columns are summed like DoubleSummaryStatistics: compensated (Kahan), and
+    // a column holding an infinity gets that infinity as sum and average instead of NaN. The result is immutable.
+
+    private final long count;
+    private final double sum;
+    private final double min;
+    private final double max;
+    private final double mean;
+    private final double m2;
+
+    private ColumnStatistics(long count, double sum, double min, double max, double mean, double m2) {
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    public static <T> Collector<T, ?, ColumnStatistics> ofInt(ToIntFunction<? super T> column) {
+        return Collector.of(
+                LongAccumulator::new,
+                (a, t) -> a.add(column.applyAsInt(t)),
+                LongAccumulator::merge,
+                LongAccumulator::result);
+    }
+
+    public static <T> Collector<T, ?, ColumnStatistics> ofLong(ToLongFunction<? super T> column) {
+        return Collector.of(
+                LongAccumulator::new,
+                (a, t) -> a.add(column.applyAsLong(t)),
+                LongAccumulator::merge,
+                LongAccumulator::result);
+    }
+
+    public static <T> Collector<T, ?, ColumnStatistics> ofDouble(ToDoubleFunction<? super T> column) {
+        return Collector.of(
+                DoubleAccumulator::new,
+                (a, t) -> a.add(column.applyAsDouble(t)),
+                DoubleAccumulator::merge,
+                DoubleAccumulator::result);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    // +Infinity when empty, like DoubleSummaryStatistics
+    public double getMin() {
+        return min;
+    }
+
+    // -Infinity when empty
+    public double getMax() {
+        return max;
+    }
+
+    // 0 when empty, like the summary statistics of the JDK
+    public double getAverage() {
+        return mean;
+    }
+
+    // divided by count, 0 when empty
+    public double getVariance() {
+        return count == 0 ? 0 : m2 / count;
+    }
+
+    // divided by count - 1, NaN for less than two values
+    public double getSampleVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getSampleStandardDeviation() {
+        return Math.sqrt(getSampleVariance());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, sum=%f, min=%f, average=%f, max=%f, variance=%f, standardDeviation=%f}",
+                getClass().getSimpleName(), count, sum, min, mean, max, getVariance(), getStandardDeviation());
+    }
+
+    // the Welford / Chan part shared by both accumulators
+    private abstract static class Moments {
+        long count;
+        double mean;
+        double m2;
+
+        final void addMoment(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+
+        final void mergeMoments(Moments other) {
+            if (other.count == 0) {
+                return;
+            }
+            if (count == 0) {
+                count = other.count;
+                mean = other.mean;
+                m2 = other.m2;
+                return;
+            }
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+            count = total;
+        }
+    }
+
+    private static final class LongAccumulator extends Moments {
+        // the exact sum is sumHigh * 2^64 + sum
+        long sum;
+        long sumHigh;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        void add(long value) {
+            addMoment(value);
+            addToSum(value, value < 0 ? -1 : 0);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        // adds high * 2^64 + low, carrying the unsigned overflow of the low words
+        private void addToSum(long low, long high) {
+            long total = sum + low;
+            sumHigh += high + (Long.compareUnsigned(total, sum) < 0 ? 1 : 0);
+            sum = total;
+        }
+
+        LongAccumulator merge(LongAccumulator other) {
+            mergeMoments(other);
+            addToSum(other.sum, other.sumHigh);
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+
+        ColumnStatistics result() {
+            if (count == 0) {
+                return new ColumnStatistics(0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 0, 0);
+            }
+            if (sumHigh == sum >> 63) { // the sum fits a long
+                return new ColumnStatistics(count, sum, min, max, (double) sum / count, m2);
+            }
+            BigInteger high = BigInteger.valueOf(sumHigh).shiftLeft(64);
+            BigDecimal exact = new BigDecimal(high.add(new BigInteger(Long.toUnsignedString(sum))));
+            double mean = exact.divide(BigDecimal.valueOf(count), MathContext.DECIMAL128).doubleValue();
+            return new ColumnStatistics(count, exact.doubleValue(), min, max, mean, m2);
+        }
+    }
+
+    private static final class DoubleAccumulator extends Moments {
+        // Kahan summation, like DoubleSummaryStatistics
+        double sum;
+        double compensation;
+        double simpleSum; // tells an infinite sum from a NaN one, the compensated sum turns both into NaN
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        void add(double value) {
+            addMoment(value);
+            addToSum(value);
+            simpleSum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        private void addToSum(double value) {
+            double corrected = value - compensation;
+            double total = sum + corrected;
+            compensation = (total - sum) - corrected;
+            sum = total;
+        }
+
+        DoubleAccumulator merge(DoubleAccumulator other) {
+            mergeMoments(other);
+            addToSum(other.sum);
+            addToSum(-other.compensation);
+            simpleSum += other.simpleSum;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            return this;
+        }
+
+        ColumnStatistics result() {
+            double total = sum - compensation;
+            if (Double.isNaN(total) && Double.isInfinite(simpleSum)) {
+                total = simpleSum;
+            }
+            // Welford's mean of an infinite value is NaN, DoubleSummaryStatistics.getAverage is sum / count
+            double average = Double.isInfinite(total) ? total / count : mean;
+            return new ColumnStatistics(count, total, min, max, average, m2);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package Streams;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Consumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public final class ColumnarSnapshot {
+    // data.txt parsed once and stored as columns, so a restart maps a file instead of parsing the text again.
+    //
+    //   header (64 bytes)  magic, version, source size + last modified time, row counts, dictionary size
+    //   values             double per row: field 2
+    //   codes              int per row: dictionary code of field 0
+    //   dictionary         int offsets[size + 1], then the UTF-8 bytes of the distinct keys
+    //
+    // Rows are the lines with exactly 3 fields (what parseDataFromRows and hashMapStoring read), the number of
+    // lines with at least 3 fields (charRemoveCount) is kept in the header.
+    // open() writes the snapshot again when the size or the modification time of the source changed.
+    // Each column is one mapping, so a snapshot holds up to ~268 million rows.
+
+    private static final int MAGIC = 0x44545331; // "DTS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+
+    private final long sourceSize;
+    private final long sourceModified;
+    private final long wideRowCount;
+    private final int rowCount;
+    private final int dictionarySize;
+    private final DoubleBuffer values;
+    private final IntBuffer codes;
+    private final IntBuffer dictionaryOffsets;
+    private final ByteBuffer dictionaryBytes;
+    private final String[] decodedKeys;
+
+    private ColumnarSnapshot(FileChannel channel) throws IOException {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("not a data snapshot");
+        }
+        sourceSize = header.getLong();
+        sourceModified = header.getLong();
+        wideRowCount = header.getLong();
+        rowCount = header.getInt();
+        dictionarySize = header.getInt();
+        long dictionaryBytesSize = header.getLong();
+
+        long valuesStart = HEADER_SIZE;
+        long codesStart = valuesStart + 8L * rowCount;
+        long offsetsStart = codesStart + 4L * rowCount;
+        long bytesStart = offsetsStart + 4L * (dictionarySize + 1);
+        if (rowCount < 0 || dictionarySize < 0 || bytesStart + dictionaryBytesSize != channel.size()) {
+            throw new IOException("incomplete data snapshot");
+        }
+        values = channel.map(FileChannel.MapMode.READ_ONLY, valuesStart, 8L * rowCount).asDoubleBuffer();
+        codes = channel.map(FileChannel.MapMode.READ_ONLY, codesStart, 4L * rowCount).asIntBuffer();
+        dictionaryOffsets = channel.map(FileChannel.MapMode.READ_ONLY, offsetsStart, 4L * (dictionarySize + 1)).asIntBuffer();
+        dictionaryBytes = channel.map(FileChannel.MapMode.READ_ONLY, bytesStart, dictionaryBytesSize);
+        decodedKeys = new String[dictionarySize];
+    }
+
+    // maps the snapshot of 'source', (re)building it first if it is missing or older than the source
+    public static ColumnarSnapshot open(Path source, Path snapshot) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        if (Files.exists(snapshot)) {
+            ColumnarSnapshot existing = map(snapshot);
+            if (existing != null
+                    && existing.sourceSize == attributes.size()
+                    && existing.sourceModified == attributes.lastModifiedTime().toMillis()) {
+                return existing;
+            }
+        }
+        write(source, snapshot);
+        return map(snapshot);
+    }
+
+    private static ColumnarSnapshot map(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return null;
+            }
+            return new ColumnarSnapshot(channel);
+        } catch (IOException | IllegalArgumentException e) {
+            return null; // unreadable or truncated, it is rebuilt
+        }
+    }
+
+    public static void write(Path source, Path snapshot) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        Path directory = snapshot.toAbsolutePath().getParent();
+        Path valuesFile = Files.createTempFile(directory, "values", ".tmp");
+        Path codesFile = Files.createTempFile(directory, "codes", ".tmp");
+        Path target = Files.createTempFile(directory, "snapshot", ".tmp");
+        try {
+            ColumnWriter writer = new ColumnWriter(valuesFile, codesFile);
+            try (MappedCsvScanner scanner = MappedCsvScanner.open(source)) {
+                scanner.rows().forEach(writer);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                writer.close();
+            }
+            if (writer.rows > (Integer.MAX_VALUE - HEADER_SIZE) / 8) {
+                throw new IllegalStateException("too many rows for one snapshot: " + writer.rows);
+            }
+
+            StringDoubleMap dictionary = writer.dictionary;
+            long dictionaryBytesSize = 0;
+            for (int i = 0; i < dictionary.size(); i++) {
+                dictionaryBytesSize += dictionary.keyLength(i);
+            }
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION)
+                        .putLong(attributes.size())
+                        .putLong(attributes.lastModifiedTime().toMillis())
+                        .putLong(writer.wideRows)
+                        .putInt((int) writer.rows)
+                        .putInt(dictionary.size())
+                        .putLong(dictionaryBytesSize);
+                header.clear();
+                writeFully(out, header);
+                transfer(valuesFile, out);
+                transfer(codesFile, out);
+
+                ByteBuffer offsets = ByteBuffer.allocate(4 * (dictionary.size() + 1));
+                int offset = 0;
+                for (int i = 0; i < dictionary.size(); i++) {
+                    offsets.putInt(offset);
+                    offset += dictionary.keyLength(i);
+                }
+                offsets.putInt(offset).flip();
+                writeFully(out, offsets);
+                ByteBuffer keys = ByteBuffer.allocate(Math.toIntExact(dictionaryBytesSize));
+                for (int i = 0; i < dictionary.size(); i++) {
+                    dictionary.copyKey(i, keys);
+                }
+                keys.flip();
+                writeFully(out, keys);
+            }
+            Files.move(target, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(valuesFile);
+            Files.deleteIfExists(codesFile);
+            Files.deleteIfExists(target);
+        }
+    }
+
+    // writes the value and code columns into two temporary files while the source is scanned once
+    private static final class ColumnWriter implements Consumer<CsvRow> {
+        final StringDoubleMap dictionary = new StringDoubleMap();
+        final DataOutputStream values;
+        final DataOutputStream codes;
+        long rows;
+        long wideRows;
+
+        ColumnWriter(Path valuesFile, Path codesFile) throws IOException {
+            values = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(valuesFile), 1 << 16));
+            codes = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(codesFile), 1 << 16));
+        }
+
+        @Override
+        public void accept(CsvRow row) {
+            int fields = row.fieldCount();
+            if (fields >= 3) {
+                wideRows++;
+            }
+            if (fields != 3) {
+                return;
+            }
+            try {
+                values.writeDouble(row.fieldAsDouble(2));
+                codes.writeInt(dictionary.indexOf(row.buffer(), row.fieldStart(0), row.fieldEnd(0)));
+                rows++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() throws IOException {
+            try {
+                values.close();
+            } finally {
+                codes.close();
+            }
+        }
+    }
+
+    private static void transfer(Path file, FileChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            long done = 0;
+            while (done < size) {
+                done += in.transferTo(done, size - done, out);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    // lines with at least 3 fields in the source, the answer of charRemoveCount
+    public long wideRowCount() {
+        return wideRowCount;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int dictionarySize() {
+        return dictionarySize;
+    }
+
+    public double value(int row) {
+        return values.get(row);
+    }
+
+    public int keyCode(int row) {
+        return codes.get(row);
+    }
+
+    // distinct keys are decoded once and then shared by all rows using them
+    public String key(int code) {
+        String key = decodedKeys[code];
+        if (key == null) {
+            int start = dictionaryOffsets.get(code);
+            byte[] bytes = new byte[dictionaryOffsets.get(code + 1) - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = dictionaryBytes.get(start + i);
+            }
+            key = new String(bytes, StandardCharsets.UTF_8);
+            decodedKeys[code] = key;
+        }
+        return key;
+    }
+
+    public IntStream rows() {
+        return IntStream.range(0, rowCount);
+    }
+
+    public DoubleStream values() {
+        return rows().mapToDouble(this::value);
+    }
+
+    public IntStream keyCodes() {
+        return rows().map(this::keyCode);
+    }
+
+    public Stream<String> keys() {
+        return rows().mapToObj(row -> key(keyCode(row)));
+    }
+}
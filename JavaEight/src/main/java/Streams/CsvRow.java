@@ -0,0 +1,149 @@
+package Streams;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public final class CsvRow {
+    // A CsvRow is a view (flyweight) over one line of a mapped file.
+    // The scanner reuses the same instance for every row, so the row is only valid inside the stream operation
+    // that received it - project the fields you need (field, fieldAsDouble, fieldAsLong) instead of collecting the row itself.
+    // Fields are kept as byte offsets, a String is created only when a field is projected.
+
+    private ByteBuffer buffer;
+    private int[] fieldStarts = new int[8];
+    private int[] fieldEnds = new int[8];
+    private int fieldCount;
+    private byte[] scratch = new byte[64];
+
+    // numbers parsed from the current row, so a filter and a value mapper on the same field parse it once
+    private double[] parsedDoubles = new double[8];
+    private long parsedMask;
+
+    // scans the buffer from 'from' and records the field offsets of one line,
+    // returns the index of the last byte of the line separator ("\n", "\r\n" or a lone "\r", as in Files.lines)
+    // or -1 if the line is not terminated before 'limit' - also when 'limit' cuts a "\r\n" after the '\r'
+    int tokenize(ByteBuffer buffer, int from, int limit) {
+        this.buffer = buffer;
+        int count = 0;
+        int fieldStart = from;
+        int i = from;
+        int newline = -1;
+        for (; i < limit; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                newline = i;
+                break;
+            }
+            if (b == '\r') {
+                if (i + 1 < limit) {
+                    newline = buffer.get(i + 1) == '\n' ? i + 1 : i;
+                }
+                break;
+            }
+            if (b == ',') {
+                count = addField(count, fieldStart, i);
+                fieldStart = i + 1;
+            }
+        }
+        int lineEnd = i;
+        boolean hasSeparator = count > 0;
+        count = addField(count, fieldStart, lineEnd);
+
+        // same as String.split(","): trailing empty fields are removed, a line without any comma is one field
+        if (hasSeparator) {
+            while (count > 0 && fieldEnds[count - 1] == fieldStarts[count - 1]) {
+                count--;
+            }
+        }
+        fieldCount = count;
+        parsedMask = 0;
+        return newline;
+    }
+
+    private int addField(int count, int start, int end) {
+        if (count == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, count * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, count * 2);
+        }
+        fieldStarts[count] = start;
+        fieldEnds[count] = end;
+        return count + 1;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public int fieldLength(int index) {
+        checkIndex(index);
+        return fieldEnds[index] - fieldStarts[index];
+    }
+
+    public String field(int index) {
+        checkIndex(index);
+        int start = fieldStarts[index];
+        int length = fieldEnds[index] - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(start + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public double fieldAsDouble(int index) {
+        checkIndex(index);
+        if (index >= Long.SIZE) {
+            return FieldParser.parseDouble(buffer, fieldStarts[index], fieldEnds[index]);
+        }
+        long bit = 1L << index;
+        if ((parsedMask & bit) == 0) {
+            if (index >= parsedDoubles.length) {
+                parsedDoubles = Arrays.copyOf(parsedDoubles, Long.SIZE);
+            }
+            parsedDoubles[index] = FieldParser.parseDouble(buffer, fieldStarts[index], fieldEnds[index]);
+            parsedMask |= bit;
+        }
+        return parsedDoubles[index];
+    }
+
+    public long fieldAsLong(int index) {
+        checkIndex(index);
+        return FieldParser.parseLong(buffer, fieldStarts[index], fieldEnds[index]);
+    }
+
+    // raw field access for consumers that work on the bytes (StringDoubleMap.fromFields)
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    int fieldStart(int index) {
+        checkIndex(index);
+        return fieldStarts[index];
+    }
+
+    int fieldEnd(int index) {
+        checkIndex(index);
+        return fieldEnds[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("field " + index + " of " + fieldCount);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < fieldCount; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(field(i));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,175 @@
+package Streams;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public final class DataFileFollower {
+    // Keeps the StreamsExamples aggregations of a file that is only ever appended to:
+    //   rowCount - rows with at least 3 fields (charRemoveCount)
+    //   values   - field 0 -> field 2 for rows with 3 fields and field 2 >= threshold (hashMapStoring)
+    // poll() remembers the byte offset it has consumed and reads only what was appended after it,
+    // so a refresh costs as much as the new rows, not the whole file.
+    //
+    // Differences to the one-shot methods:
+    //   - a key that appears again takes the newest value (toMap would throw a duplicate key error)
+    //   - a last line without a line separator is still being written, it is read once the separator arrives
+    //     (a '\r' as the last byte waits too, it may be the first half of "\r\n")
+    //   - a row whose field 2 is not a number is skipped and counted in skippedRows(), it does not stop the
+    //     follower (parseDouble would throw)
+    //   - a file that got shorter or has a new file key (replaced, e.g. by a rename) is read again from byte 0;
+    //     a file truncated in place that grew past the old position before the next poll is not noticed
+    // A poll applies all rows it read or none of them: the counters, the map and the position change together
+    // after the last row, so an I/O error leaves the follower where the previous poll left it.
+    // The counter and the map are updated by the thread calling poll/follow, read them from that thread.
+
+    private static final int PROBE = 8 << 10;
+
+    private final Path path;
+    private final double threshold;
+    private Object fileKey;
+    private long position;
+    private long rowCount;
+    private long skippedRows;
+    private StringDoubleMap values = new StringDoubleMap();
+
+    public DataFileFollower(Path path, double threshold) {
+        this.path = path;
+        this.threshold = threshold;
+    }
+
+    public long position() {
+        return position;
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    // rows with 3 fields whose field 2 could not be parsed, they are in neither rowCount nor values
+    public long skippedRows() {
+        return skippedRows;
+    }
+
+    public StringDoubleMap values() {
+        return values;
+    }
+
+    // reads the complete lines appended since the last call, returns true if anything was consumed
+    public boolean poll() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            Object key = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+            long size = channel.size();
+            if (size < position || key != null && fileKey != null && !key.equals(fileKey)) {
+                position = 0;
+                rowCount = 0;
+                skippedRows = 0;
+                values = new StringDoubleMap();
+            }
+            fileKey = key;
+            long end = endOfLastLine(channel, position, size);
+            if (end <= position) {
+                return false;
+            }
+            // the spliterator sees the file as if it ended after the last complete line
+            Spliterator<CsvRow> rows = new LineSpliterator(channel, end, position, end, LineSpliterator.DEFAULT_WINDOW, 1);
+            Batch batch = new Batch(threshold);
+            rows.forEachRemaining(batch);
+            rowCount += batch.rowCount;
+            skippedRows += batch.skippedRows;
+            values.putAll(batch.values);
+            position = end;
+            return true;
+        }
+    }
+
+    // the rows of one poll, applied to the follower only after the last one was read
+    private static final class Batch implements Consumer<CsvRow> {
+        final double threshold;
+        final StringDoubleMap values = new StringDoubleMap();
+        long rowCount;
+        long skippedRows;
+
+        Batch(double threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void accept(CsvRow row) {
+            int fields = row.fieldCount();
+            if (fields == 3) {
+                double value;
+                try {
+                    value = row.fieldAsDouble(2);
+                } catch (NumberFormatException e) {
+                    skippedRows++;
+                    return;
+                }
+                if (value >= threshold) {
+                    values.put(row.buffer(), row.fieldStart(0), row.fieldEnd(0), value);
+                }
+            }
+            if (fields >= 3) {
+                rowCount++;
+            }
+        }
+    }
+
+    // offset just after the last line separator in [from, size), or 'from' if no line was completed
+    private static long endOfLastLine(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE);
+        long chunkEnd = size;
+        while (chunkEnd > from) {
+            long chunkStart = Math.max(from, chunkEnd - PROBE);
+            probe.clear();
+            probe.limit((int) (chunkEnd - chunkStart));
+            int read = 0;
+            while (probe.hasRemaining()) {
+                int n = channel.read(probe, chunkStart + read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            for (int i = read - 1; i >= 0; i--) {
+                byte b = probe.get(i);
+                // scanning backwards, a '\r' found before any '\n' is a lone one, unless it is the last byte
+                if (b == '\n' || b == '\r' && chunkStart + i + 1 < size) {
+                    return chunkStart + i + 1;
+                }
+            }
+            chunkEnd = chunkStart;
+        }
+        return from;
+    }
+
+    // polls until the thread is interrupted; wakes up on a WatchService event for the file or at the latest
+    // after intervalMillis (some file systems do not report modifications), onUpdate runs after new rows
+    public void follow(long intervalMillis, Consumer<DataFileFollower> onUpdate) throws IOException, InterruptedException {
+        Path directory = path.toAbsolutePath().getParent();
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            while (!Thread.currentThread().isInterrupted()) {
+                if (poll()) {
+                    onUpdate.accept(this);
+                }
+                WatchKey key = watcher.poll(intervalMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package Streams;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class FieldParser {
+    // Parses numbers straight from a range of bytes (a mapped CsvRow field), without cutting a substring first.
+    // Same rules as Double.parseDouble: surrounding whitespace is ignored (" 3.7" from "A, 12, 3.7" is fine).
+    // parseLong ignores the whitespace too, which Long.parseLong does not.
+    //
+    // Plain decimals ("3.7", "-12", "1.5e3") with up to 15 significant digits and a small exponent are computed
+    // exactly from a long mantissa and a power of ten - one correctly rounded multiplication or division.
+    // Everything else (long mantissas, hex, NaN, "1d", errors) falls back to Double.parseDouble on a String.
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_DIGITS = 15; // 10^15 < 2^53, so the mantissa is an exact double
+    private static final int NO_FAST_PATH = Integer.MIN_VALUE;
+
+    private FieldParser() {}
+
+    public static double parseDouble(ByteBuffer bytes, int start, int end) {
+        while (start < end && bytes.get(start) <= ' ' && bytes.get(start) >= 0) start++;
+        while (end > start && bytes.get(end - 1) <= ' ' && bytes.get(end - 1) >= 0) end--;
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+            negative = bytes.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        boolean dot = false;
+        for (; i < end; i++) {
+            byte c = bytes.get(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (mantissa != 0 || c != '0') {
+                    if (++digits > MAX_DIGITS) {
+                        return Double.parseDouble(ascii(bytes, start, end));
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                if (dot) scale--;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        int exponent = 0;
+        if (anyDigit && i < end && (bytes.get(i) == 'e' || bytes.get(i) == 'E')) {
+            exponent = NO_FAST_PATH;
+            int j = i + 1;
+            boolean negativeExponent = false;
+            if (j < end && (bytes.get(j) == '-' || bytes.get(j) == '+')) {
+                negativeExponent = bytes.get(j) == '-';
+                j++;
+            }
+            if (j < end && end - j <= 4) {
+                int e = 0;
+                for (; j < end && bytes.get(j) >= '0' && bytes.get(j) <= '9'; j++) {
+                    e = e * 10 + (bytes.get(j) - '0');
+                }
+                if (j == end) {
+                    exponent = negativeExponent ? -e : e;
+                }
+            }
+            i = j;
+        }
+        if (!anyDigit || i != end || exponent == NO_FAST_PATH) {
+            return Double.parseDouble(ascii(bytes, start, end));
+        }
+        return scale(negative, mantissa, scale + exponent);
+    }
+
+    // mantissa * 10^power, exact when the power of ten is exact (|power| <= 22)
+    private static double scale(boolean negative, long mantissa, int power) {
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (power >= 0 && power < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[power];
+        } else if (power < 0 && -power < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-power];
+        } else {
+            return Double.parseDouble((negative ? "-" : "") + mantissa + "E" + power);
+        }
+        return negative ? -value : value;
+    }
+
+    public static long parseLong(ByteBuffer bytes, int start, int end) {
+        while (start < end && bytes.get(start) <= ' ' && bytes.get(start) >= 0) start++;
+        while (end > start && bytes.get(end - 1) <= ' ' && bytes.get(end - 1) >= 0) end--;
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+            negative = bytes.get(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException("For input string: \"" + ascii(bytes, start, end) + "\"");
+        }
+        // accumulate negatively, Long.MIN_VALUE has no positive counterpart
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = bytes.get(i) - '0';
+            if (digit < 0 || digit > 9 || result < limit / 10 || result * 10 < limit + digit) {
+                throw new NumberFormatException("For input string: \"" + ascii(bytes, start, end) + "\"");
+            }
+            result = result * 10 - digit;
+        }
+        return negative ? result : -result;
+    }
+
+    // only used on the slow path and for error messages
+    private static String ascii(ByteBuffer bytes, int start, int end) {
+        byte[] copy = new byte[end - start];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = bytes.get(start + i);
+        }
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package Streams;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class Flattening {
+    // flatMap without a Stream (or a List to stream from) per parent element, like Stream.mapMulti of Java 16:
+    //
+    //   Stream<Bar> bars = Flattening.mapMulti(foos.stream(), (foo, sink) -> {
+    //       for (int i = 1; i < 4; i++) {
+    //           sink.accept(new Bar("Bar" + i + " <- " + foo.name));
+    //       }
+    //   });
+    //
+    // The mapper pushes the children of a parent into the sink it gets.
+    // A pipeline without short-circuiting drives the source with forEachRemaining and the sink is the
+    // downstream stage itself, nothing is buffered. findFirst, anyMatch, limit ... pull element by element
+    // (tryAdvance): then the children of one parent go through a buffer reused for every parent and the
+    // pipeline stops after the parent that produced the element it was waiting for.
+    // Nothing happens before the terminal operation, the source is closed with the returned stream.
+
+    private Flattening() {}
+
+    public static <T, R> Stream<R> mapMulti(Stream<T> source, BiConsumer<? super T, ? super Consumer<R>> mapper) {
+        return StreamSupport.stream(new MultiSpliterator<>(source.spliterator(), mapper), source.isParallel())
+                .onClose(source::close);
+    }
+
+    private static final class MultiSpliterator<T, R> implements Spliterator<R> {
+        private final Spliterator<T> source;
+        private final BiConsumer<? super T, ? super Consumer<R>> mapper;
+
+        // children of the last parent tryAdvance read, buffer[next..size) not handed out yet
+        private Object[] buffer;
+        private int next;
+        private int size;
+        private Consumer<R> bufferAdd;
+        private Consumer<T> expand;
+
+        MultiSpliterator(Spliterator<T> source, BiConsumer<? super T, ? super Consumer<R>> mapper) {
+            this.source = source;
+            this.mapper = mapper;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super R> action) {
+            if (next == size) {
+                if (expand == null) {
+                    buffer = new Object[8];
+                    bufferAdd = this::add;
+                    expand = t -> mapper.accept(t, bufferAdd);
+                }
+                Arrays.fill(buffer, 0, size, null);
+                next = size = 0;
+                while (size == 0) {
+                    if (!source.tryAdvance(expand)) {
+                        return false;
+                    }
+                }
+            }
+            action.accept((R) buffer[next++]);
+            return true;
+        }
+
+        private void add(R child) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = child;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super R> action) {
+            while (next < size) {
+                R child = (R) buffer[next];
+                buffer[next++] = null;
+                action.accept(child);
+            }
+            Consumer<R> sink = (Consumer<R>) action;
+            source.forEachRemaining(t -> mapper.accept(t, sink));
+        }
+
+        @Override
+        public Spliterator<R> trySplit() {
+            // children already buffered would have to come before the prefix
+            if (next < size) {
+                return null;
+            }
+            Spliterator<T> prefix = source.trySplit();
+            return prefix == null ? null : new MultiSpliterator<>(prefix, mapper);
+        }
+
+        // the number of parents left, the number of children is not known in advance
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & Spliterator.ORDERED;
+        }
+    }
+}
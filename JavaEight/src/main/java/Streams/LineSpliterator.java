@@ -0,0 +1,156 @@
+package Streams;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+final class LineSpliterator implements Spliterator<CsvRow> {
+    // Walks the lines that START inside [position, end) of a file.
+    // The file is mapped window by window (a single mapping is limited to 2 GB), a line that crosses the end
+    // of a window makes the window move forward, a line longer than the window makes it grow.
+    // trySplit cuts the byte range in half and moves the cut to the next line start, so every line is read
+    // by exactly one spliterator and a parallel stream can spread a big file over all cores.
+
+    static final int DEFAULT_WINDOW = 64 << 20;
+    static final long MIN_SPLIT = 1 << 20;
+    private static final int PROBE = 8 << 10;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long end;
+    private final int windowSize;
+    private final long bytesPerLine;
+    private final CsvRow row = new CsvRow();
+
+    private long position;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLength;
+
+    LineSpliterator(FileChannel channel, long fileSize, long start, long end, int windowSize, long bytesPerLine) {
+        this.channel = channel;
+        this.fileSize = fileSize;
+        this.position = start;
+        this.end = end;
+        this.windowSize = windowSize;
+        this.bytesPerLine = Math.max(1, bytesPerLine);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super CsvRow> action) {
+        if (position >= end) {
+            return false;
+        }
+        if (window == null || position < windowStart || position >= windowStart + windowLength) {
+            map(position, windowSize);
+        }
+        int from = (int) (position - windowStart);
+        int newline = row.tokenize(window, from, windowLength);
+        while (newline < 0 && windowStart + windowLength < fileSize) {
+            // the line continues after this window: move the window to the line start, or grow it
+            if (position > windowStart) {
+                map(position, windowSize);
+            } else if (windowLength < Integer.MAX_VALUE) {
+                map(position, (int) Math.min(Integer.MAX_VALUE, windowLength * 2L));
+            } else {
+                throw new IllegalStateException("line longer than 2 GB at byte " + position);
+            }
+            newline = row.tokenize(window, 0, windowLength);
+        }
+        position = newline < 0 ? fileSize : windowStart + newline + 1;
+        action.accept(row);
+        return true;
+    }
+
+    private void map(long start, int length) {
+        try {
+            windowStart = start;
+            windowLength = (int) Math.min(length, fileSize - start);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Spliterator<CsvRow> trySplit() {
+        long remaining = end - position;
+        if (remaining < 2 * MIN_SPLIT) {
+            return null;
+        }
+        long cut = nextLineStart(position + remaining / 2);
+        if (cut >= end) {
+            return null; // one line covers the whole second half
+        }
+        LineSpliterator prefix = new LineSpliterator(channel, fileSize, position, cut, windowSize, bytesPerLine);
+        position = cut;
+        window = null;
+        return prefix;
+    }
+
+    // first line start at or after 'from': the byte after the first line separator found from 'from - 1'
+    private long nextLineStart(long from) {
+        ByteBuffer probe = ByteBuffer.allocate(PROBE);
+        long offset = from - 1;
+        try {
+            while (offset < fileSize) {
+                probe.clear();
+                int read = channel.read(probe, offset);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = probe.get(i);
+                    if (b == '\n') {
+                        return offset + i + 1;
+                    }
+                    if (b == '\r') {
+                        // a "\r\n" is one separator, the line starts after the '\n'
+                        long next = offset + i + 1;
+                        boolean crlf = i + 1 < read ? probe.get(i + 1) == '\n' : next < fileSize && byteAt(next) == '\n';
+                        return crlf ? next + 1 : next;
+                    }
+                }
+                offset += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return fileSize;
+    }
+
+    private byte byteAt(long offset) throws IOException {
+        ByteBuffer one = ByteBuffer.allocate(1);
+        return channel.read(one, offset) == 1 ? one.get(0) : -1;
+    }
+
+    // the line count is only known after reading the range, so the estimate is bytes / average line length
+    // and the spliterator is not SIZED (a SIZED stream may answer count() without reading the lines)
+    @Override
+    public long estimateSize() {
+        return Math.max(1, (end - position) / bytesPerLine);
+    }
+
+    // average line length of the first bytes of the file, used for the size estimates
+    static long sampleBytesPerLine(FileChannel channel, long fileSize) throws IOException {
+        ByteBuffer sample = ByteBuffer.allocate((int) Math.min(fileSize, 64 << 10));
+        int read = Math.max(0, channel.read(sample, 0));
+        int lines = 0;
+        for (int i = 0; i < read; i++) {
+            byte b = sample.get(i);
+            if (b == '\n' || b == '\r' && (i + 1 == read || sample.get(i + 1) != '\n')) {
+                lines++;
+            }
+        }
+        return lines == 0 ? Math.max(1, read) : read / lines;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
@@ -0,0 +1,101 @@
+package Streams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class LongGroups<T> {
+    // Result of PrimitiveGrouping.groupingBy*: a long key -> List<T> map whose keys are never boxed.
+    // Keys are kept in the order they first appeared, the lists sit in an array indexed by that order.
+
+    private final LongKeyIndex index;
+    private List<T>[] groups = newArray(16);
+
+    LongGroups(LongKeyIndex index) {
+        this.index = index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T>[] newArray(int length) {
+        return (List<T>[]) new List<?>[length];
+    }
+
+    void add(long key, T element) {
+        group(key).add(element);
+    }
+
+    private List<T> group(long key) {
+        int entry = index.add(key);
+        if (entry == groups.length) {
+            groups = Arrays.copyOf(groups, entry * 2);
+        }
+        List<T> group = groups[entry];
+        if (group == null) {
+            group = new ArrayList<>();
+            groups[entry] = group;
+        }
+        return group;
+    }
+
+    LongGroups<T> merge(LongGroups<T> other) {
+        for (int entry = 0; entry < other.size(); entry++) {
+            group(other.index.keyAt(entry)).addAll(other.groups[entry]);
+        }
+        return this;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean containsKey(long key) {
+        return index.find(key) >= 0;
+    }
+
+    // empty list for a key that never appeared
+    public List<T> get(long key) {
+        int entry = index.find(key);
+        return entry < 0 ? Collections.<T>emptyList() : groups[entry];
+    }
+
+    public long keyAt(int entry) {
+        return index.keyAt(entry);
+    }
+
+    public List<T> groupAt(int entry) {
+        return groups[entry];
+    }
+
+    public long[] keys() {
+        long[] keys = new long[size()];
+        for (int entry = 0; entry < keys.length; entry++) {
+            keys[entry] = index.keyAt(entry);
+        }
+        return keys;
+    }
+
+    public void forEach(EntryConsumer<T> action) {
+        for (int entry = 0; entry < size(); entry++) {
+            action.accept(index.keyAt(entry), groups[entry]);
+        }
+    }
+
+    public Map<Long, List<T>> toMap() {
+        Map<Long, List<T>> map = new LinkedHashMap<>(size() * 2);
+        forEach(map::put);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<T> {
+        void accept(long key, List<T> group);
+    }
+}
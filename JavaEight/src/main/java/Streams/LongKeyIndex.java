@@ -0,0 +1,133 @@
+package Streams;
+
+import java.util.Arrays;
+
+final class LongKeyIndex {
+    // Gives every distinct long key a stable entry number 0, 1, 2 ... in the order the keys first appear,
+    // so the grouping results keep their values in plain arrays indexed by entry.
+    //
+    // Dense mode (a [min, max] range was given): table[key - min] holds entry + 1, one array read per lookup.
+    // Hashed mode: open addressing with linear probing over keys[] / entries[].
+    // A key outside the dense range switches the index to hashed mode, the entry numbers stay the same.
+
+    private static final int MAX_DENSE_RANGE = 1 << 20;
+
+    private long[] entryKeys = new long[16];
+    private int size;
+
+    // dense mode
+    private long min;
+    private int[] direct;
+
+    // hashed mode
+    private long[] keys;
+    private int[] entries;
+    private int mask;
+
+    LongKeyIndex() {
+        hashed(16);
+    }
+
+    LongKeyIndex(long min, long max) {
+        if (max < min) {
+            throw new IllegalArgumentException("empty key range [" + min + ", " + max + "]");
+        }
+        if (max - min >= MAX_DENSE_RANGE) {
+            hashed(16);
+        } else {
+            this.min = min;
+            this.direct = new int[(int) (max - min + 1)];
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long keyAt(int entry) {
+        return entryKeys[entry];
+    }
+
+    // entry of the key, -1 if it was never added
+    int find(long key) {
+        if (direct != null) {
+            long offset = key - min;
+            return offset >= 0 && offset < direct.length ? direct[(int) offset] - 1 : -1;
+        }
+        for (int slot = mix(key) & mask; entries[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return entries[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    // entry of the key, a new one (== size() - 1 afterwards) if the key is new
+    int add(long key) {
+        if (direct != null) {
+            long offset = key - min;
+            if (offset >= 0 && offset < direct.length) {
+                int entry = direct[(int) offset] - 1;
+                if (entry < 0) {
+                    entry = newEntry(key);
+                    direct[(int) offset] = entry + 1;
+                }
+                return entry;
+            }
+            toHashed();
+        }
+        int slot = mix(key) & mask;
+        for (; entries[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return entries[slot] - 1;
+            }
+        }
+        int entry = newEntry(key);
+        keys[slot] = key;
+        entries[slot] = entry + 1;
+        if (size > (mask + 1) / 2) {
+            rehash((mask + 1) * 2);
+        }
+        return entry;
+    }
+
+    private int newEntry(long key) {
+        if (size == entryKeys.length) {
+            entryKeys = Arrays.copyOf(entryKeys, size * 2);
+        }
+        entryKeys[size] = key;
+        return size++;
+    }
+
+    private void toHashed() {
+        direct = null;
+        int tableSize = 16;
+        while (tableSize / 2 < size + 1) {
+            tableSize *= 2;
+        }
+        rehash(tableSize);
+    }
+
+    private void hashed(int tableSize) {
+        keys = new long[tableSize];
+        entries = new int[tableSize];
+        mask = tableSize - 1;
+    }
+
+    private void rehash(int tableSize) {
+        hashed(tableSize);
+        for (int entry = 0; entry < size; entry++) {
+            int slot = mix(entryKeys[entry]) & mask;
+            while (entries[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = entryKeys[entry];
+            entries[slot] = entry + 1;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,84 @@
+package Streams;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class LongSums {
+    // Result of PrimitiveGrouping.countingBy* / summingBy*: a long key -> long total map with no boxing.
+    // Keys are kept in the order they first appeared, totals sit in a long[] indexed by that order.
+
+    private final LongKeyIndex index;
+    private long[] totals = new long[16];
+
+    LongSums(LongKeyIndex index) {
+        this.index = index;
+    }
+
+    void add(long key, long amount) {
+        int entry = index.add(key);
+        if (entry == totals.length) {
+            totals = Arrays.copyOf(totals, entry * 2);
+        }
+        totals[entry] += amount;
+    }
+
+    LongSums merge(LongSums other) {
+        for (int entry = 0; entry < other.size(); entry++) {
+            add(other.index.keyAt(entry), other.totals[entry]);
+        }
+        return this;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean containsKey(long key) {
+        return index.find(key) >= 0;
+    }
+
+    // 0 for a key that never appeared
+    public long get(long key) {
+        int entry = index.find(key);
+        return entry < 0 ? 0 : totals[entry];
+    }
+
+    public long keyAt(int entry) {
+        return index.keyAt(entry);
+    }
+
+    public long totalAt(int entry) {
+        return totals[entry];
+    }
+
+    public long[] keys() {
+        long[] keys = new long[size()];
+        for (int entry = 0; entry < keys.length; entry++) {
+            keys[entry] = index.keyAt(entry);
+        }
+        return keys;
+    }
+
+    public void forEach(EntryConsumer action) {
+        for (int entry = 0; entry < size(); entry++) {
+            action.accept(index.keyAt(entry), totals[entry]);
+        }
+    }
+
+    public Map<Long, Long> toMap() {
+        Map<Long, Long> map = new LinkedHashMap<>(size() * 2);
+        forEach(map::put);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long total);
+    }
+}
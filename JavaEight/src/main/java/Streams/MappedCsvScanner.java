@@ -0,0 +1,49 @@
+package Streams;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class MappedCsvScanner implements Closeable {
+    // Reads a comma separated file through FileChannel.map instead of Files.lines + String.split.
+    // Lines are tokenized directly on the mapped bytes, nothing is decoded until a pipeline projects a field:
+    //
+    //   try (MappedCsvScanner scanner = MappedCsvScanner.open(Paths.get("data.txt"))) {
+    //       long rows = scanner.rows().filter(r -> r.fieldCount() >= 3).count();
+    //   }
+    //
+    // The stream gives the same CsvRow instance for every line (see CsvRow), so map it to what you need.
+    // Lines end at "\n", "\r\n" or a lone "\r", the same rows Files.lines gives.
+    // rows().parallel() splits the file into line aligned byte ranges, one CsvRow per split.
+
+    private final FileChannel channel;
+    private final long size;
+    private final long bytesPerLine;
+
+    private MappedCsvScanner(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.bytesPerLine = LineSpliterator.sampleBytesPerLine(channel, size);
+    }
+
+    public static MappedCsvScanner open(Path path) throws IOException {
+        return new MappedCsvScanner(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public Stream<CsvRow> rows() {
+        return StreamSupport.stream(new LineSpliterator(channel, size, 0, size, LineSpliterator.DEFAULT_WINDOW, bytesPerLine), false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close(); // mapped windows stay readable until they are garbage collected
+    }
+}
@@ -23,6 +23,7 @@ public class ParallelStreams {
 
         sequentialSort(); //by using stream
         parallelSort(); //by using parallelStream
+        radixSort(); //by packing every UUID into two longs
 
         List<Person> persons = Arrays.asList(
                 new Person("Max", 18),
@@ -44,6 +45,24 @@ public class ParallelStreams {
                         });
 
         // The console output reveals that both the accumulator and the combiner functions are executed in parallel on all available thread
+
+        // the same reduction on its own pool of two threads (thread names "batch-worker-N"), split into at most two tasks
+        dedicatedPoolReduce(persons);
+    }
+
+    static void dedicatedPoolReduce(List<Person> persons){
+        try (StreamPool batch = StreamPool.create("batch", 2)) {
+            int ageSum = batch.invoke(() -> batch.stream(persons, 1, 2)
+                    .reduce(
+                            0,
+                            (sum, p) -> {
+                                System.out.format("accumulator: sum=%s; person=%s [%s]\n", sum, p, Thread.currentThread().getName());
+                                return sum += p.age;
+                            },
+                            (sum1, sum2) -> sum1 + sum2));
+            System.out.println("age sum: " + ageSum);
+            System.out.println(batch.metrics());
+        }
     }
 
 
@@ -84,5 +103,25 @@ public class ParallelStreams {
         System.out.println(String.format("parallel sort took: %d ms", millis));
     }
 
+    static void radixSort(){
+        int max = 1000000;
+        List<String> values = new ArrayList<>(max);
+        for (int i = 0; i < max; i++) {
+            UUID uuid = UUID.randomUUID();
+            values.add(uuid.toString());
+        }
+
+        long t0 = System.nanoTime();
+
+        // the strings are packed into two longs each, radix sorted and decoded again
+        List<String> sorted = UuidSort.sort(values);
+        System.out.println(sorted.size());
+
+        long t1 = System.nanoTime();
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(t1 - t0);
+        System.out.println(String.format("radix sort took: %d ms", millis));
+    }
+
 
 }
@@ -0,0 +1,65 @@
+package Streams;
+
+import java.util.stream.Collector;
+
+public final class PersonAggregate {
+    // What aggregateNamesAges and ageSum compute, as a mutable reduction instead of reduce():
+    //
+    //   PersonAggregate all = people.parallelStream().collect(PersonAggregate.collector());
+    //   all.getNames();   // MaxPeterPamelaDavid
+    //   all.getAgeSum();  // 76
+    //
+    // Every fork of a parallel stream gets its own aggregate (one StringBuilder and two longs), so nothing is
+    // shared, no identity object is mutated and no String or Integer is created per element.
+    // combine appends the right fork behind the left one, the encounter order of the names is kept.
+
+    private final StringBuilder names = new StringBuilder();
+    private long ageSum;
+    private long count;
+
+    public PersonAggregate() {}
+
+    public static Collector<Person, PersonAggregate, PersonAggregate> collector() {
+        return Collector.of(PersonAggregate::new, PersonAggregate::accept, PersonAggregate::combine,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    public void accept(Person person) {
+        names.append(person.name);
+        ageSum += person.age;
+        count++;
+    }
+
+    public PersonAggregate combine(PersonAggregate other) {
+        names.append(other.names);
+        ageSum += other.ageSum;
+        count += other.count;
+        return this;
+    }
+
+    public String getNames() {
+        return names.toString();
+    }
+
+    public long getAgeSum() {
+        return ageSum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAverageAge() {
+        return count == 0 ? 0 : (double) ageSum / count;
+    }
+
+    // the Person aggregateNamesAges builds; fails if the age sum does not fit an int
+    public Person toPerson() {
+        return new Person(getNames(), Math.toIntExact(ageSum));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("name=%s; age=%s; count=%s", names, ageSum, count);
+    }
+}
@@ -0,0 +1,418 @@
+package Streams;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+public final class PersonTable {
+    // Persons stored column by column instead of one object per person:
+    //
+    //   PersonTable table = PersonTable.from(people);
+    //   long ageSum = table.ageSum();                                  // a loop over one int[]
+    //   PersonTable.Selection adults = table.selectAge(age -> age >= 18);
+    //   double average = table.ages(adults).average().orElse(0);
+    //   table.rows(adults).forEach(System.out::println);               // Person objects made here only
+    //
+    // age is an int column, name, firstName and lastName are dictionary encoded: every distinct String is kept
+    // once and the column holds its int code (-1 for null). A name predicate is tested once per distinct name,
+    // the rows are then found by comparing codes.
+    // The int columns live in int[]s or, created with offHeap = true, in direct buffers outside the Java heap
+    // (no GC copying of a 100M row column, but the scans go through IntBuffer.get).
+    // A Selection is the sorted array of the row numbers that passed a filter, it can be filtered further.
+    // Not thread safe while rows are added, concurrent reads afterwards are fine.
+
+    private final boolean offHeap;
+    private int size;
+    private IntColumn ages;
+    private final StringColumn names;
+    private final StringColumn firstNames;
+    private final StringColumn lastNames;
+
+    private PersonTable(int capacity, boolean offHeap) {
+        this.offHeap = offHeap;
+        int initial = Math.max(16, capacity);
+        this.ages = IntColumn.allocate(initial, offHeap);
+        this.names = new StringColumn(initial, offHeap);
+        this.firstNames = new StringColumn(initial, offHeap);
+        this.lastNames = new StringColumn(initial, offHeap);
+    }
+
+    public static PersonTable create(int capacity, boolean offHeap) {
+        return new PersonTable(capacity, offHeap);
+    }
+
+    public static PersonTable from(Collection<Person> persons) {
+        return from(persons, false);
+    }
+
+    public static PersonTable from(Collection<Person> persons, boolean offHeap) {
+        PersonTable table = new PersonTable(persons.size(), offHeap);
+        for (Person person : persons) {
+            table.add(person);
+        }
+        return table;
+    }
+
+    // returns the row number of the new row
+    public int add(String name, int age) {
+        return add(name, age, null, null);
+    }
+
+    public int add(Person person) {
+        return add(person.name, person.age, person.firstName, person.lastName);
+    }
+
+    private int add(String name, int age, String firstName, String lastName) {
+        if (size == ages.capacity()) {
+            int capacity = size * 2;
+            if (capacity < 0) {
+                throw new IllegalStateException("PersonTable is full");
+            }
+            ages = ages.grow(capacity);
+            names.grow(capacity);
+            firstNames.grow(capacity);
+            lastNames.grow(capacity);
+        }
+        ages.set(size, age);
+        names.set(size, name);
+        firstNames.set(size, firstName);
+        lastNames.set(size, lastName);
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public int age(int row) {
+        return ages.get(checkRow(row));
+    }
+
+    public String name(int row) {
+        return names.get(checkRow(row));
+    }
+
+    public String firstName(int row) {
+        return firstNames.get(checkRow(row));
+    }
+
+    public String lastName(int row) {
+        return lastNames.get(checkRow(row));
+    }
+
+    // number of distinct (non null) names
+    public int nameDictionarySize() {
+        return names.dictionary.size();
+    }
+
+    // a new Person with the values of the row, changing it does not change the table
+    public Person row(int row) {
+        checkRow(row);
+        Person person = new Person(names.get(row), ages.get(row));
+        person.firstName = firstNames.get(row);
+        person.lastName = lastNames.get(row);
+        return person;
+    }
+
+    public Stream<Person> rows() {
+        return IntStream.range(0, size).mapToObj(this::row);
+    }
+
+    public Stream<Person> rows(Selection selection) {
+        return selection.rows().mapToObj(this::row);
+    }
+
+    public IntStream ages() {
+        return ages.stream(size);
+    }
+
+    public IntStream ages(Selection selection) {
+        checkTable(selection);
+        IntColumn column = ages;
+        return selection.rows().map(column::get);
+    }
+
+    public long ageSum() {
+        return ages.sum(size);
+    }
+
+    public long ageSum(Selection selection) {
+        checkTable(selection);
+        IntColumn column = ages;
+        long sum = 0;
+        for (int i = 0; i < selection.size; i++) {
+            sum += column.get(selection.rows[i]);
+        }
+        return sum;
+    }
+
+    public Selection selectAge(IntPredicate predicate) {
+        int[] selected = new int[Math.min(size, 1024)];
+        int count = 0;
+        IntColumn column = ages;
+        for (int row = 0; row < size; row++) {
+            if (predicate.test(column.get(row))) {
+                if (count == selected.length) {
+                    selected = Arrays.copyOf(selected, Math.min(size, count * 2));
+                }
+                selected[count++] = row;
+            }
+        }
+        return new Selection(this, selected, count);
+    }
+
+    public Selection selectAge(Selection selection, IntPredicate predicate) {
+        checkTable(selection);
+        int[] selected = new int[selection.size];
+        int count = 0;
+        IntColumn column = ages;
+        for (int i = 0; i < selection.size; i++) {
+            int row = selection.rows[i];
+            if (predicate.test(column.get(row))) {
+                selected[count++] = row;
+            }
+        }
+        return new Selection(this, selected, count);
+    }
+
+    // the predicate sees every distinct name once (never null)
+    public Selection selectName(Predicate<String> predicate) {
+        boolean[] matches = names.matches(predicate);
+        int[] selected = new int[Math.min(size, 1024)];
+        int count = 0;
+        IntColumn codes = names.codes;
+        for (int row = 0; row < size; row++) {
+            int code = codes.get(row);
+            if (code >= 0 && matches[code]) {
+                if (count == selected.length) {
+                    selected = Arrays.copyOf(selected, Math.min(size, count * 2));
+                }
+                selected[count++] = row;
+            }
+        }
+        return new Selection(this, selected, count);
+    }
+
+    public Selection selectName(Selection selection, Predicate<String> predicate) {
+        checkTable(selection);
+        boolean[] matches = names.matches(predicate);
+        int[] selected = new int[selection.size];
+        int count = 0;
+        IntColumn codes = names.codes;
+        for (int i = 0; i < selection.size; i++) {
+            int row = selection.rows[i];
+            int code = codes.get(row);
+            if (code >= 0 && matches[code]) {
+                selected[count++] = row;
+            }
+        }
+        return new Selection(this, selected, count);
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("row " + row + ", size " + size);
+        }
+        return row;
+    }
+
+    private void checkTable(Selection selection) {
+        if (selection.table != this) {
+            throw new IllegalArgumentException("selection of another table");
+        }
+    }
+
+    public static final class Selection {
+        private final PersonTable table;
+        private final int[] rows;
+        private final int size;
+
+        Selection(PersonTable table, int[] rows, int size) {
+            this.table = table;
+            this.rows = rows;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int row(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+            }
+            return rows[index];
+        }
+
+        public IntStream rows() {
+            return Arrays.stream(rows, 0, size);
+        }
+    }
+
+    private static final class StringColumn {
+        final Map<String, Integer> codesByValue = new HashMap<>();
+        final List<String> dictionary = new ArrayList<>();
+        IntColumn codes;
+
+        StringColumn(int capacity, boolean offHeap) {
+            codes = IntColumn.allocate(capacity, offHeap);
+        }
+
+        void grow(int capacity) {
+            codes = codes.grow(capacity);
+        }
+
+        void set(int row, String value) {
+            int code = -1;
+            if (value != null) {
+                Integer existing = codesByValue.get(value);
+                if (existing == null) {
+                    code = dictionary.size();
+                    dictionary.add(value);
+                    codesByValue.put(value, code);
+                } else {
+                    code = existing;
+                }
+            }
+            codes.set(row, code);
+        }
+
+        String get(int row) {
+            int code = codes.get(row);
+            return code < 0 ? null : dictionary.get(code);
+        }
+
+        boolean[] matches(Predicate<String> predicate) {
+            boolean[] matches = new boolean[dictionary.size()];
+            for (int code = 0; code < matches.length; code++) {
+                matches[code] = predicate.test(dictionary.get(code));
+            }
+            return matches;
+        }
+    }
+
+    private abstract static class IntColumn {
+        static IntColumn allocate(int capacity, boolean offHeap) {
+            return offHeap ? new DirectIntColumn(capacity) : new HeapIntColumn(capacity);
+        }
+
+        abstract int capacity();
+
+        abstract int get(int row);
+
+        abstract void set(int row, int value);
+
+        abstract IntColumn grow(int capacity);
+
+        abstract IntStream stream(int size);
+
+        abstract long sum(int size);
+    }
+
+    private static final class HeapIntColumn extends IntColumn {
+        private int[] values;
+
+        HeapIntColumn(int capacity) {
+            values = new int[capacity];
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        int get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void set(int row, int value) {
+            values[row] = value;
+        }
+
+        @Override
+        IntColumn grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+            return this;
+        }
+
+        @Override
+        IntStream stream(int size) {
+            return Arrays.stream(values, 0, size);
+        }
+
+        @Override
+        long sum(int size) {
+            int[] v = values;
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += v[i];
+            }
+            return sum;
+        }
+    }
+
+    private static final class DirectIntColumn extends IntColumn {
+        private final IntBuffer values;
+
+        DirectIntColumn(int capacity) {
+            if (capacity > Integer.MAX_VALUE / 4) {
+                throw new IllegalArgumentException("off heap column too large: " + capacity + " rows");
+            }
+            values = ByteBuffer.allocateDirect(capacity * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+
+        @Override
+        int capacity() {
+            return values.capacity();
+        }
+
+        @Override
+        int get(int row) {
+            return values.get(row);
+        }
+
+        @Override
+        void set(int row, int value) {
+            values.put(row, value);
+        }
+
+        @Override
+        IntColumn grow(int capacity) {
+            DirectIntColumn grown = new DirectIntColumn(capacity);
+            grown.values.duplicate().put(values.duplicate());
+            return grown;
+        }
+
+        @Override
+        IntStream stream(int size) {
+            IntBuffer v = values;
+            return IntStream.range(0, size).map(v::get);
+        }
+
+        @Override
+        long sum(int size) {
+            IntBuffer v = values;
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += v.get(i);
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package Streams;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class PipelineProfiler {
+    // What StreamAPI.sortingDeeply / noSortExecuted show with printf, collected as numbers instead:
+    //
+    //   PipelineProfiler profiler = PipelineProfiler.enabled();
+    //   profiler.sorted("sort", stream, Comparator.naturalOrder())
+    //         .filter(profiler.filter("startsWith a", s -> s.startsWith("a")))
+    //         .map(profiler.map("upper", String::toUpperCase))
+    //         .forEach(...);
+    //   System.out.println(profiler.report());
+    //
+    // Every wrapper counts the elements going in and out of its stage and the nanoseconds spent in the lambda
+    // itself (not in the stages after it), a sorted stage also counts comparator calls.
+    // Stages are keyed by name: a pipeline built again on every call reuses its stages instead of adding new ones,
+    // so a profiler can stay enabled on a hot path for as long as the application runs.
+    // source and sorted count the elements in a wrapping spliterator, not with peek: on Java 9+ count() answers
+    // a SIZED pipeline without running peek (or map) at all. The wrapper does not report SIZED, so a profiled
+    // pipeline always pulls its elements through - and gives up the size based shortcuts while it is profiled.
+    // A disabled profiler returns the lambdas and streams unchanged, so the pipeline runs exactly as without it.
+    // The counters are LongAdders, parallel streams can share one profiler.
+
+    private static final PipelineProfiler DISABLED = new PipelineProfiler(false);
+
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, Stage> stagesByName = new ConcurrentHashMap<>();
+    // report order, only written when a new name shows up
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+
+    private PipelineProfiler(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static PipelineProfiler enabled() {
+        return new PipelineProfiler(true);
+    }
+
+    public static PipelineProfiler disabled() {
+        return DISABLED;
+    }
+
+    public static PipelineProfiler of(boolean enabled) {
+        return enabled ? enabled() : DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // counts what the source emits (or what reaches any point of the pipeline)
+    public <T> Stream<T> source(String name, Stream<T> stream) {
+        if (!enabled) {
+            return stream;
+        }
+        Stage stage = stage(name, "source");
+        return counted(stream, stage.in, stage.out);
+    }
+
+    public <T> Predicate<T> filter(String name, Predicate<T> predicate) {
+        if (!enabled) {
+            return predicate;
+        }
+        Stage stage = stage(name, "filter");
+        return t -> {
+            long start = System.nanoTime();
+            boolean result = predicate.test(t);
+            stage.nanos.add(System.nanoTime() - start);
+            stage.in.increment();
+            if (result) {
+                stage.out.increment();
+            }
+            return result;
+        };
+    }
+
+    public <T, R> Function<T, R> map(String name, Function<T, R> mapper) {
+        if (!enabled) {
+            return mapper;
+        }
+        Stage stage = stage(name, "map");
+        return t -> {
+            long start = System.nanoTime();
+            R result = mapper.apply(t);
+            stage.nanos.add(System.nanoTime() - start);
+            stage.in.increment();
+            stage.out.increment();
+            return result;
+        };
+    }
+
+    // the elements are counted going into the sort and coming out of it, the time is spent in the comparator
+    public <T> Stream<T> sorted(String name, Stream<T> stream, Comparator<? super T> comparator) {
+        if (!enabled) {
+            return stream.sorted(comparator);
+        }
+        Stage stage = stage(name, "sorted");
+        Stream<T> sorted = counted(stream, stage.in).sorted((a, b) -> {
+            long start = System.nanoTime();
+            int result = comparator.compare(a, b);
+            stage.nanos.add(System.nanoTime() - start);
+            stage.comparisons.increment();
+            return result;
+        });
+        return counted(sorted, stage.out);
+    }
+
+    private static <T> Stream<T> counted(Stream<T> stream, LongAdder... counters) {
+        return StreamSupport.stream(new CountingSpliterator<>(stream.spliterator(), counters), stream.isParallel())
+                .onClose(stream::close);
+    }
+
+    public <T> Consumer<T> forEach(String name, Consumer<T> action) {
+        if (!enabled) {
+            return action;
+        }
+        Stage stage = stage(name, "forEach");
+        return t -> {
+            long start = System.nanoTime();
+            action.accept(t);
+            stage.nanos.add(System.nanoTime() - start);
+            stage.in.increment();
+            stage.out.increment();
+        };
+    }
+
+    private Stage stage(String name, String kind) {
+        Stage stage = stagesByName.get(name);
+        if (stage == null) {
+            synchronized (stages) {
+                stage = stagesByName.get(name);
+                if (stage == null) {
+                    stage = new Stage(name, kind);
+                    stages.add(stage);
+                    stagesByName.put(name, stage);
+                }
+            }
+        }
+        if (!stage.kind.equals(kind)) {
+            throw new IllegalArgumentException("stage " + name + " is a " + stage.kind + ", not a " + kind);
+        }
+        return stage;
+    }
+
+    public Report report() {
+        List<StageReport> result = new ArrayList<>();
+        for (Stage stage : stages) {
+            result.add(new StageReport(stage.name, stage.kind,
+                    stage.in.sum(), stage.out.sum(), stage.comparisons.sum(), stage.nanos.sum()));
+        }
+        return new Report(result);
+    }
+
+    public void reset() {
+        for (Stage stage : stages) {
+            stage.in.reset();
+            stage.out.reset();
+            stage.comparisons.reset();
+            stage.nanos.reset();
+        }
+    }
+
+    // passes the elements through and counts them; not SIZED, so count() cannot skip it
+    private static final class CountingSpliterator<T> implements Spliterator<T> {
+        private final Spliterator<T> source;
+        private final LongAdder[] counters;
+
+        CountingSpliterator(Spliterator<T> source, LongAdder[] counters) {
+            this.source = source;
+            this.counters = counters;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return source.tryAdvance(t -> {
+                count();
+                action.accept(t);
+            });
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            source.forEachRemaining(t -> {
+                count();
+                action.accept(t);
+            });
+        }
+
+        private void count() {
+            for (LongAdder counter : counters) {
+                counter.increment();
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Spliterator<T> prefix = source.trySplit();
+            return prefix == null ? null : new CountingSpliterator<>(prefix, counters);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & ~(SIZED | SUBSIZED);
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    private static final class Stage {
+        final String name;
+        final String kind;
+        final LongAdder in = new LongAdder();
+        final LongAdder out = new LongAdder();
+        final LongAdder comparisons = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        Stage(String name, String kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+    }
+
+    public static final class StageReport {
+        private final String name;
+        private final String kind;
+        private final long in;
+        private final long out;
+        private final long comparisons;
+        private final long nanos;
+
+        StageReport(String name, String kind, long in, long out, long comparisons, long nanos) {
+            this.name = name;
+            this.kind = kind;
+            this.in = in;
+            this.out = out;
+            this.comparisons = comparisons;
+            this.nanos = nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public long getIn() {
+            return in;
+        }
+
+        public long getOut() {
+            return out;
+        }
+
+        // share of the elements a filter let through, 1 for the other stages, NaN when no element was counted
+        public double getSelectivity() {
+            return in == 0 ? Double.NaN : (double) out / in;
+        }
+
+        public long getComparisons() {
+            return comparisons;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-20s %-8s in=%d out=%d selectivity=%.3f comparisons=%d time=%.3f ms",
+                    name, kind, in, out, getSelectivity(), comparisons, nanos / 1e6);
+        }
+    }
+
+    public static final class Report {
+        private final List<StageReport> stages;
+
+        Report(List<StageReport> stages) {
+            this.stages = Collections.unmodifiableList(stages);
+        }
+
+        public List<StageReport> getStages() {
+            return stages;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (StageReport stage : stages) {
+                sb.append(stage).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+}
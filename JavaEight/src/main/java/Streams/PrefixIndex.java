@@ -0,0 +1,200 @@
+package Streams;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class PrefixIndex {
+    // Answers filter(s -> s.startsWith(prefix)) without looking at every string:
+    //
+    //   PrefixIndex index = PrefixIndex.of(stringCollection);
+    //   long startsWithB = index.count("b");           // stringCollection.stream().filter(s -> s.startsWith("b")).count()
+    //   index.stream("a").forEach(System.out::println); // aaa1, aaa2 - sorted
+    //
+    // In String.compareTo order all strings with the same prefix are neighbours: they come at or after the prefix
+    // and before the prefix with its last char incremented ("b" -> "c"), two binary searches find them.
+    // So count is O(log n), stream and range O(log n + k).
+    // The strings are kept in a sorted array plus a small sorted buffer for the ones added later; when the buffer
+    // is full it is merged into a new array (about sqrt(n) strings per merge, so an add costs O(sqrt(n))).
+    // Duplicates are kept, as many as were added. Not thread safe while strings are added.
+
+    private static final int MIN_BUFFER = 64;
+
+    private String[] sorted;
+    private String[] buffer = new String[MIN_BUFFER];
+    private int bufferSize;
+
+    private PrefixIndex(String[] sorted) {
+        this.sorted = sorted;
+    }
+
+    public static PrefixIndex of(Collection<String> strings) {
+        String[] array = strings.toArray(new String[0]);
+        for (String s : array) {
+            if (s == null) {
+                throw new NullPointerException("null strings cannot be indexed");
+            }
+        }
+        Arrays.parallelSort(array);
+        return new PrefixIndex(array);
+    }
+
+    public int size() {
+        return sorted.length + bufferSize;
+    }
+
+    public void add(String s) {
+        if (s == null) {
+            throw new NullPointerException("null strings cannot be indexed");
+        }
+        if (bufferSize == buffer.length) {
+            compact();
+            int capacity = Math.max(MIN_BUFFER, (int) Math.sqrt(sorted.length));
+            if (buffer.length < capacity) {
+                buffer = new String[capacity];
+            }
+        }
+        int position = upperBound(buffer, 0, bufferSize, s);
+        System.arraycopy(buffer, position, buffer, position + 1, bufferSize - position);
+        buffer[position] = s;
+        bufferSize++;
+    }
+
+    public void addAll(Collection<String> strings) {
+        PrefixIndex added = of(strings);
+        compact();
+        sorted = merge(sorted, sorted.length, added.sorted, added.sorted.length);
+    }
+
+    // merges the buffer into the sorted array
+    public void compact() {
+        if (bufferSize > 0) {
+            sorted = merge(sorted, sorted.length, buffer, bufferSize);
+            Arrays.fill(buffer, 0, bufferSize, null);
+            bufferSize = 0;
+        }
+    }
+
+    public long count(String prefix) {
+        return end(sorted, sorted.length, prefix) - lowerBound(sorted, 0, sorted.length, prefix)
+                + end(buffer, bufferSize, prefix) - lowerBound(buffer, 0, bufferSize, prefix);
+    }
+
+    public boolean containsPrefix(String prefix) {
+        return count(prefix) > 0;
+    }
+
+    // the strings starting with prefix, sorted
+    public Stream<String> stream(String prefix) {
+        return StreamSupport.stream(range(prefix).spliterator(), false);
+    }
+
+    // the strings starting with prefix, sorted, as they are now: later adds do not show up in the list.
+    // Without buffered strings in the range this is a view of the sorted array (the array is replaced, never
+    // changed, by a merge), otherwise the k strings are merged into a new array.
+    public List<String> range(String prefix) {
+        String[] main = sorted;
+        int from = lowerBound(main, 0, main.length, prefix);
+        int to = end(main, main.length, prefix);
+        int bufferFrom = lowerBound(buffer, 0, bufferSize, prefix);
+        int bufferTo = end(buffer, bufferSize, prefix);
+        if (bufferFrom == bufferTo) {
+            return new Range(main, from, to);
+        }
+        String[] merged = merge(Arrays.copyOfRange(main, from, to), to - from,
+                Arrays.copyOfRange(buffer, bufferFrom, bufferTo), bufferTo - bufferFrom);
+        return new Range(merged, 0, merged.length);
+    }
+
+    // first index of [0, size) whose string does not start with prefix any more
+    private static int end(String[] array, int size, String prefix) {
+        String next = successor(prefix);
+        return next == null ? size : lowerBound(array, 0, size, next);
+    }
+
+    // the smallest string greater than every string starting with prefix, null if there is none
+    private static String successor(String prefix) {
+        int last = prefix.length() - 1;
+        while (last >= 0 && prefix.charAt(last) == Character.MAX_VALUE) {
+            last--;
+        }
+        if (last < 0) {
+            return null;
+        }
+        return prefix.substring(0, last) + (char) (prefix.charAt(last) + 1);
+    }
+
+    private static int lowerBound(String[] array, int from, int to, String key) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (array[middle].compareTo(key) < 0) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private static int upperBound(String[] array, int from, int to, String key) {
+        while (from < to) {
+            int middle = (from + to) >>> 1;
+            if (array[middle].compareTo(key) <= 0) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    private static String[] merge(String[] a, int aSize, String[] b, int bSize) {
+        String[] merged = new String[aSize + bSize];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < aSize && j < bSize) {
+            merged[k++] = a[i].compareTo(b[j]) <= 0 ? a[i++] : b[j++];
+        }
+        System.arraycopy(a, i, merged, k, aSize - i);
+        System.arraycopy(b, j, merged, k + aSize - i, bSize - j);
+        return merged;
+    }
+
+    private static final class Range extends AbstractList<String> implements RandomAccess {
+        private final String[] array;
+        private final int from;
+        private final int to;
+
+        Range(String[] array, int from, int to) {
+            this.array = array;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("index " + index + ", size " + (to - from));
+            }
+            return array[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public Spliterator<String> spliterator() {
+            return Spliterators.spliterator(array, from, to,
+                    Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        }
+    }
+}
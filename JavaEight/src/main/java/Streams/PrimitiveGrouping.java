@@ -0,0 +1,79 @@
+package Streams;
+
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+public final class PrimitiveGrouping {
+    // groupingBy for int and long keys without an Integer / Long per element:
+    //
+    //   LongGroups<Person> byAge = people.stream().collect(groupingByInt(p -> p.age, 0, 150));
+    //   LongSums countByAge = people.stream().collect(countingByInt(p -> p.age, 0, 150));
+    //
+    // With a [min, max] range (small and dense, like ages) a key is an index into an array of buckets,
+    // without one the keys go to a primitive open addressing table. A key outside the given range still works,
+    // the table switches to open addressing.
+    // The counting and summing variants add into a long[] and allocate nothing per element.
+    // int keys are stored as long, read them back with keyAt / get(long).
+
+    private PrimitiveGrouping() {}
+
+    public static <T> Collector<T, ?, LongGroups<T>> groupingByInt(ToIntFunction<? super T> key) {
+        return groups(LongKeyIndex::new, t -> key.applyAsInt(t));
+    }
+
+    public static <T> Collector<T, ?, LongGroups<T>> groupingByInt(ToIntFunction<? super T> key, int min, int max) {
+        return groups(() -> new LongKeyIndex(min, max), t -> key.applyAsInt(t));
+    }
+
+    public static <T> Collector<T, ?, LongGroups<T>> groupingByLong(ToLongFunction<? super T> key) {
+        return groups(LongKeyIndex::new, key);
+    }
+
+    public static <T> Collector<T, ?, LongGroups<T>> groupingByLong(ToLongFunction<? super T> key, long min, long max) {
+        return groups(() -> new LongKeyIndex(min, max), key);
+    }
+
+    public static <T> Collector<T, ?, LongSums> countingByInt(ToIntFunction<? super T> key) {
+        return sums(LongKeyIndex::new, t -> key.applyAsInt(t), t -> 1);
+    }
+
+    public static <T> Collector<T, ?, LongSums> countingByInt(ToIntFunction<? super T> key, int min, int max) {
+        return sums(() -> new LongKeyIndex(min, max), t -> key.applyAsInt(t), t -> 1);
+    }
+
+    public static <T> Collector<T, ?, LongSums> countingByLong(ToLongFunction<? super T> key) {
+        return sums(LongKeyIndex::new, key, t -> 1);
+    }
+
+    public static <T> Collector<T, ?, LongSums> summingByInt(ToIntFunction<? super T> key, ToLongFunction<? super T> value) {
+        return sums(LongKeyIndex::new, t -> key.applyAsInt(t), value);
+    }
+
+    public static <T> Collector<T, ?, LongSums> summingByInt(ToIntFunction<? super T> key, int min, int max,
+                                                             ToLongFunction<? super T> value) {
+        return sums(() -> new LongKeyIndex(min, max), t -> key.applyAsInt(t), value);
+    }
+
+    public static <T> Collector<T, ?, LongSums> summingByLong(ToLongFunction<? super T> key, ToLongFunction<? super T> value) {
+        return sums(LongKeyIndex::new, key, value);
+    }
+
+    private static <T> Collector<T, ?, LongGroups<T>> groups(Supplier<LongKeyIndex> index, ToLongFunction<? super T> key) {
+        return Collector.of(
+                () -> new LongGroups<T>(index.get()),
+                (groups, t) -> groups.add(key.applyAsLong(t), t),
+                LongGroups::merge,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    private static <T> Collector<T, ?, LongSums> sums(Supplier<LongKeyIndex> index, ToLongFunction<? super T> key,
+                                                      ToLongFunction<? super T> value) {
+        return Collector.of(
+                () -> new LongSums(index.get()),
+                (sums, t) -> sums.add(key.applyAsLong(t), value.applyAsLong(t)),
+                LongSums::merge,
+                Collector.Characteristics.IDENTITY_FINISH);
+    }
+}
@@ -0,0 +1,243 @@
+package Streams;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class Query<T> {
+    // Records a pipeline over a collection and runs it in a cheaper order (see StreamAPI.sortingDeeply and
+    // noSortExecuted for why the order matters):
+    //
+    //   Query.from(list).sorted().filter(s -> s.startsWith("a")).map(String::toUpperCase).toList();
+    //   // runs as filter -> sorted -> map
+    //
+    // The rewrites, all of them keep the result of the pipeline as written:
+    //  - a filter moves ahead of sorted and distinct (it does not look at the order, and equal elements pass or
+    //    fail together - predicates have to be stateless and consistent with equals, like the Stream API wants),
+    //    it never moves across map or limit
+    //  - consecutive filters become one predicate, consecutive maps one function
+    //  - sorted().limit(k) keeps a k element heap instead of sorting everything (TopK, ties in encounter order
+    //    like the stable sort)
+    //  - sorted() followed by findFirst() is min(), a sort that no limit depends on is dropped for count()
+    // explain() prints the pipeline as written and as it runs.
+    // A Query is immutable, every operation returns a new one; nothing runs before a terminal operation.
+
+    private enum Kind { FILTER, MAP, SORTED, DISTINCT, LIMIT }
+
+    private static final class Op {
+        final Kind kind;
+        final Object function; // Predicate, Function or Comparator
+        final long limit;
+        final String description;
+
+        Op(Kind kind, Object function, long limit, String description) {
+            this.kind = kind;
+            this.function = function;
+            this.limit = limit;
+            this.description = description;
+        }
+    }
+
+    private final Collection<?> source;
+    private final List<Op> ops;
+
+    private Query(Collection<?> source, List<Op> ops) {
+        this.source = source;
+        this.ops = ops;
+    }
+
+    public static <T> Query<T> from(Collection<T> source) {
+        return new Query<>(source, Collections.<Op>emptyList());
+    }
+
+    public Query<T> filter(Predicate<? super T> predicate) {
+        return with(new Op(Kind.FILTER, predicate, 0, "filter"));
+    }
+
+    public <R> Query<R> map(Function<? super T, ? extends R> mapper) {
+        return with(new Op(Kind.MAP, mapper, 0, "map"));
+    }
+
+    // natural order, elements that are not Comparable fail when the query runs, like Stream.sorted()
+    public Query<T> sorted() {
+        return with(new Op(Kind.SORTED, Comparator.naturalOrder(), 0, "sorted"));
+    }
+
+    public Query<T> sorted(Comparator<? super T> comparator) {
+        return with(new Op(Kind.SORTED, comparator, 0, "sorted"));
+    }
+
+    public Query<T> distinct() {
+        return with(new Op(Kind.DISTINCT, null, 0, "distinct"));
+    }
+
+    public Query<T> limit(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(Long.toString(maxSize));
+        }
+        return with(new Op(Kind.LIMIT, null, maxSize, "limit(" + maxSize + ")"));
+    }
+
+    private <R> Query<R> with(Op op) {
+        List<Op> next = new ArrayList<>(ops);
+        next.add(op);
+        return new Query<>(source, next);
+    }
+
+    public Stream<T> stream() {
+        return run(plan(ops));
+    }
+
+    public List<T> toList() {
+        return stream().collect(Collectors.toList());
+    }
+
+    public void forEach(Consumer<? super T> action) {
+        stream().forEach(action);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<T> findFirst() {
+        List<Op> plan = plan(ops);
+        if (!plan.isEmpty() && plan.get(plan.size() - 1).kind == Kind.SORTED) {
+            Comparator<? super T> comparator = (Comparator<? super T>) plan.get(plan.size() - 1).function;
+            return this.<T>run(plan.subList(0, plan.size() - 1)).min(comparator);
+        }
+        return this.<T>run(plan).findFirst();
+    }
+
+    public long count() {
+        return run(withoutUnusedSorts(plan(ops))).count();
+    }
+
+    public String explain() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("written:   ").append(describe(ops, false)).append('\n');
+        List<Op> plan = plan(ops);
+        sb.append("runs as:   ").append(describe(plan, true)).append('\n');
+        if (!plan.isEmpty() && plan.get(plan.size() - 1).kind == Kind.SORTED) {
+            sb.append("findFirst: the last sorted runs as min()\n");
+        }
+        List<Op> counted = withoutUnusedSorts(plan);
+        if (counted.size() < plan.size()) {
+            sb.append("count:     ").append(describe(counted, true)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String describe(List<Op> plan, boolean asRun) {
+        StringBuilder sb = new StringBuilder("source");
+        for (int i = 0; i < plan.size(); i++) {
+            Op op = plan.get(i);
+            if (asRun && op.kind == Kind.SORTED && i + 1 < plan.size() && topK(plan.get(i + 1))) {
+                sb.append(" -> top ").append(plan.get(++i).limit).append(" (heap instead of sorted + limit)");
+            } else {
+                sb.append(" -> ").append(op.description);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static List<Op> plan(List<Op> ops) {
+        List<Op> plan = new ArrayList<>();
+        for (Op op : ops) {
+            if (op.kind == Kind.FILTER) {
+                int position = plan.size();
+                while (position > 0 && (plan.get(position - 1).kind == Kind.SORTED || plan.get(position - 1).kind == Kind.DISTINCT)) {
+                    position--;
+                }
+                if (position > 0 && plan.get(position - 1).kind == Kind.FILTER) {
+                    plan.set(position - 1, fuse(plan.get(position - 1), op));
+                } else {
+                    plan.add(position, op);
+                }
+            } else if (op.kind == Kind.MAP && !plan.isEmpty() && plan.get(plan.size() - 1).kind == Kind.MAP) {
+                plan.set(plan.size() - 1, fuse(plan.get(plan.size() - 1), op));
+            } else {
+                plan.add(op);
+            }
+        }
+        return plan;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Op fuse(Op first, Op second) {
+        String description = first.description + "+" + second.kind.name().toLowerCase();
+        if (first.kind == Kind.FILTER) {
+            Predicate<Object> a = (Predicate<Object>) first.function;
+            Predicate<Object> b = (Predicate<Object>) second.function;
+            return new Op(Kind.FILTER, (Predicate<Object>) t -> a.test(t) && b.test(t), 0, description);
+        }
+        Function<Object, Object> f = (Function<Object, Object>) first.function;
+        Function<Object, Object> g = (Function<Object, Object>) second.function;
+        return new Op(Kind.MAP, (Function<Object, Object>) t -> g.apply(f.apply(t)), 0, description);
+    }
+
+    // the order only matters to a later limit
+    private static List<Op> withoutUnusedSorts(List<Op> plan) {
+        List<Op> result = new ArrayList<>(plan);
+        boolean limitAfter = false;
+        for (int i = result.size() - 1; i >= 0; i--) {
+            Kind kind = result.get(i).kind;
+            if (kind == Kind.LIMIT) {
+                limitAfter = true;
+            } else if (kind == Kind.SORTED && !limitAfter) {
+                result.remove(i);
+            }
+        }
+        return result;
+    }
+
+    private static boolean topK(Op op) {
+        return op.kind == Kind.LIMIT && op.limit < Integer.MAX_VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> Stream<R> run(List<Op> plan) {
+        Stream<Object> stream = (Stream<Object>) source.stream();
+        for (int i = 0; i < plan.size(); i++) {
+            Op op = plan.get(i);
+            switch (op.kind) {
+                case FILTER:
+                    stream = stream.filter((Predicate<Object>) op.function);
+                    break;
+                case MAP:
+                    stream = stream.map((Function<Object, Object>) op.function);
+                    break;
+                case SORTED:
+                    Comparator<Object> comparator = (Comparator<Object>) op.function;
+                    if (i + 1 < plan.size() && topK(plan.get(i + 1))) {
+                        int k = (int) plan.get(++i).limit;
+                        Stream<Object> unsorted = stream;
+                        // lazy like sorted(): the heap is filled by the terminal operation
+                        stream = StreamSupport.stream(
+                                () -> unsorted.collect(TopK.smallest(k, comparator)).spliterator(),
+                                Spliterator.SIZED | Spliterator.ORDERED, false)
+                                .onClose(unsorted::close);
+                    } else {
+                        stream = stream.sorted(comparator);
+                    }
+                    break;
+                case DISTINCT:
+                    stream = stream.distinct();
+                    break;
+                case LIMIT:
+                    stream = stream.limit(op.limit);
+                    break;
+                default:
+                    throw new IllegalStateException(op.kind.name());
+            }
+        }
+        return (Stream<R>) stream;
+    }
+}
@@ -59,6 +59,14 @@ public class StreamAPI {
         // only once you can use terminate operation, although you can use Supplier Interface
         System.out.println("\nREUSED STREAM EXAMPLE:");
         reusedStream();
+
+        // sortingDeeply and noSortExecuted again, measured by a profiler instead of printed from the lambdas
+        System.out.println("\nINSTRUMENTED PIPELINE EXAMPLE:");
+        instrumentedPipeline();
+
+        // the sortingDeeply pipeline written with a Query, which filters before it sorts
+        System.out.println("\nOPTIMIZED QUERY EXAMPLE:");
+        optimizedQuery();
     }
 
 
@@ -192,7 +200,37 @@ public class StreamAPI {
         streamSupplier.get().noneMatch(s -> true);
     }
 
+    static void instrumentedPipeline(){
+        // with PipelineProfiler.disabled() the same code runs the plain lambdas
+        PipelineProfiler sortFirst = PipelineProfiler.enabled();
+        sortFirst.sorted("sort", sortFirst.source("source", Stream.of("d2", "a2", "b1", "b3", "c")), String::compareTo)
+                .filter(sortFirst.filter("startsWith a", s -> s.startsWith("a")))
+                .map(sortFirst.map("toUpperCase", String::toUpperCase))
+                .forEach(sortFirst.forEach("forEach", s -> {}));
+        System.out.println("sort, then filter:\n" + sortFirst.report());
+
+        PipelineProfiler filterFirst = PipelineProfiler.enabled();
+        Stream<String> filtered = filterFirst.source("source", Stream.of("d2", "a2", "b1", "b3", "c"))
+                .filter(filterFirst.filter("startsWith a", s -> s.startsWith("a")));
+        filterFirst.sorted("sort", filtered, String::compareTo)
+                .map(filterFirst.map("toUpperCase", String::toUpperCase))
+                .forEach(filterFirst.forEach("forEach", s -> {}));
+        System.out.println("filter, then sort:\n" + filterFirst.report());
+        //the sort stage of the second pipeline sorts 1 element instead of 5, with 0 comparisons
+    }
 
+    static void optimizedQuery(){
+        List<String> list = Arrays.asList("d2", "a2", "b1", "b3", "c");
+        Query<String> query = Query.from(list)
+                .sorted()
+                .filter(s -> s.startsWith("a"))
+                .map(String::toUpperCase);
 
+        System.out.print(query.explain());
+        //written:   source -> sorted -> filter -> map
+        //runs as:   source -> filter -> sorted -> map
+        query.forEach(System.out::println); // A2
 
+        System.out.println(Query.from(list).sorted().filter(s -> s.startsWith("b")).findFirst().get()); // b1, by min()
+    }
 }
@@ -0,0 +1,202 @@
+package Streams;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class StreamPool implements AutoCloseable {
+    // A dedicated ForkJoinPool for parallel streams, so a batch reduction does not take the common pool away from
+    // latency sensitive work. A parallel stream runs its tasks in the pool of the thread that starts the terminal
+    // operation, so the whole pipeline is started from inside the pool:
+    //
+    //   try (StreamPool batch = StreamPool.create("batch", 4)) {
+    //       int sum = batch.invoke(() -> persons.parallelStream().mapToInt(p -> p.age).sum());
+    //   }
+    //
+    // How far a stream splits is decided by the common pool parallelism, whatever pool runs it. split() wraps the
+    // source so a pipeline stops splitting below a chunk size and at a number of leaf tasks - the latter is also
+    // the most threads the pipeline can keep busy at once.
+
+    private final String name;
+    private final ForkJoinPool pool;
+
+    private StreamPool(String name, int parallelism) {
+        this.name = name;
+        AtomicInteger threads = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(name + "-worker-" + threads.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    public static StreamPool create(String name, int parallelism) {
+        return new StreamPool(name, parallelism);
+    }
+
+    public <T> T invoke(Supplier<T> pipeline) {
+        return pool.submit(pipeline::get).join();
+    }
+
+    public void run(Runnable pipeline) {
+        pool.submit(pipeline).join();
+    }
+
+    // a parallel stream over 'source' that splits into at most maxLeaves tasks of at least minChunk elements
+    public <T> Stream<T> stream(Collection<T> source, long minChunk, int maxLeaves) {
+        return StreamSupport.stream(split(source.spliterator(), minChunk, maxLeaves), true);
+    }
+
+    public static <T> Spliterator<T> split(Spliterator<T> source, long minChunk, int maxLeaves) {
+        if (minChunk < 1 || maxLeaves < 1) {
+            throw new IllegalArgumentException("minChunk and maxLeaves must be positive");
+        }
+        return new LimitedSpliterator<>(source, minChunk, maxLeaves);
+    }
+
+    public PoolMetrics metrics() {
+        return new PoolMetrics(name, pool.getParallelism(), pool.getPoolSize(), pool.getActiveThreadCount(),
+                pool.getRunningThreadCount(), pool.getStealCount(), pool.getQueuedTaskCount(),
+                pool.getQueuedSubmissionCount());
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // splits only while both halves keep minChunk elements and while it has leaves to give away:
+    // a spliterator allowed n leaves hands n / 2 to the prefix it splits off and keeps the rest
+    private static final class LimitedSpliterator<T> implements Spliterator<T> {
+        private final Spliterator<T> source;
+        private final long minChunk;
+        private int leaves;
+
+        LimitedSpliterator(Spliterator<T> source, long minChunk, int leaves) {
+            this.source = source;
+            this.minChunk = minChunk;
+            this.leaves = leaves;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (leaves < 2 || source.estimateSize() < 2 * minChunk) {
+                return null;
+            }
+            Spliterator<T> prefix = source.trySplit();
+            if (prefix == null) {
+                return null;
+            }
+            int prefixLeaves = leaves / 2;
+            leaves -= prefixLeaves;
+            return new LimitedSpliterator<>(prefix, minChunk, prefixLeaves);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return source.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            source.forEachRemaining(action);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+            return source.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics();
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    public static final class PoolMetrics {
+        private final String name;
+        private final int parallelism;
+        private final int poolSize;
+        private final int activeThreads;
+        private final int runningThreads;
+        private final long steals;
+        private final long queuedTasks;
+        private final int queuedSubmissions;
+
+        PoolMetrics(String name, int parallelism, int poolSize, int activeThreads, int runningThreads,
+                    long steals, long queuedTasks, int queuedSubmissions) {
+            this.name = name;
+            this.parallelism = parallelism;
+            this.poolSize = poolSize;
+            this.activeThreads = activeThreads;
+            this.runningThreads = runningThreads;
+            this.steals = steals;
+            this.queuedTasks = queuedTasks;
+            this.queuedSubmissions = queuedSubmissions;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public int getActiveThreads() {
+            return activeThreads;
+        }
+
+        public int getRunningThreads() {
+            return runningThreads;
+        }
+
+        // tasks taken from another worker's queue, summed when workers exit (an estimate while they run)
+        public long getSteals() {
+            return steals;
+        }
+
+        // tasks waiting in the worker queues
+        public long getQueuedTasks() {
+            return queuedTasks;
+        }
+
+        // pipelines submitted from outside and not started yet
+        public int getQueuedSubmissions() {
+            return queuedSubmissions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: parallelism=%d threads=%d active=%d running=%d steals=%d queued=%d submissions=%d",
+                    name, parallelism, poolSize, activeThreads, runningThreads, steals, queuedTasks, queuedSubmissions);
+        }
+    }
+}
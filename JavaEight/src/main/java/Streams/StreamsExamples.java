@@ -2,11 +2,15 @@ package Streams;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
 import java.util.stream.Stream;
 
 public class StreamsExamples {
@@ -19,8 +23,26 @@ public class StreamsExamples {
         //parsing values
         //streamsExamples.parseDataFromRows();
 
-        //from rows to HashMap
+        //from rows to a String -> double map
         streamsExamples.hashMapStoring();
+
+        //the same three pipelines on a memory-mapped file, fields are read as byte offsets
+        //streamsExamples.charRemoveCountMapped();
+        //streamsExamples.parseDataFromRowsMapped();
+        //streamsExamples.hashMapStoringMapped();
+
+        //the mapped file split into newline aligned byte ranges and processed by a parallel stream
+        //streamsExamples.charRemoveCountParallel();
+        //streamsExamples.hashMapStoringParallel();
+
+        //keep the row count and the map up to date while data.txt is appended to (runs until interrupted)
+        //streamsExamples.followDataFile();
+
+        //parse data.txt once into a columnar snapshot, later runs only map the snapshot file
+        //streamsExamples.snapshotExamples();
+
+        //the in-place field parser against Double.parseDouble on the inputs where a fast path could go wrong
+        streamsExamples.fieldParserCheck();
     }
 
     void charRemoveCount(){
@@ -55,24 +77,180 @@ public class StreamsExamples {
     void hashMapStoring(){
         try {
             Stream<String> myRow = Files.lines(Paths.get("data.txt"));
-            Map<String, Double> myMap = new HashMap<>();
-            myMap = myRow
+            // keys in one byte arena and values in a double[], no Node, String or Double per entry
+            StringDoubleMap myMap = myRow
                         .map(x -> x.split(","))
                         .filter(x -> x.length == 3)
                         .filter(x -> Double.parseDouble(x[2]) >= 2)
-                        .collect(Collectors.toMap(
+                        .collect(StringDoubleMap.collector(
                                 x -> x[0],
                                 x -> Double.parseDouble(x[2])
                         ));
             myRow.close();
-            for (String key : myMap.keySet()){
-                System.out.println(key + " " + myMap.get(key));
-            }
+            myMap.forEach((key, value) -> System.out.println(key + " " + value));
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    //MAPPED SCANNER
+    // no String per line and no String[] per row, only the projected fields become objects
+    void charRemoveCountMapped(){
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(Paths.get("data.txt"))) {
+            int rowCounter = (int)scanner.rows()
+                    .filter(x -> x.fieldCount() >= 3)
+                    .count();
+            System.out.println(rowCounter + " rows.");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
+    void parseDataFromRowsMapped(){
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(Paths.get("data.txt"))) {
+            scanner.rows()
+                    .filter(x -> x.fieldCount() == 3)
+                    .filter(x -> x.fieldAsDouble(2) >= 3)
+                    .forEach(x -> System.out.println(x.field(0) + " " + x.field(1) + " " + x.field(2)));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    void hashMapStoringMapped(){
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(Paths.get("data.txt"))) {
+            // keys are copied from the mapped bytes into the map's arena, values stay primitive doubles
+            StringDoubleMap myMap = scanner.rows()
+                    .filter(x -> x.fieldCount() == 3)
+                    .filter(x -> x.fieldAsDouble(2) >= 2)
+                    .collect(StringDoubleMap.fromFields(0, 2));
+            myMap.forEach((key, value) -> System.out.println(key + " " + value));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    //PARALLEL MAPPED SCANNER
+    // every split of the file gets its own CsvRow, so the same pipelines can run on all cores
+    void charRemoveCountParallel(){
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(Paths.get("data.txt"))) {
+            long rowCounter = scanner.rows()
+                    .parallel()
+                    .filter(x -> x.fieldCount() >= 3)
+                    .count();
+            System.out.println(rowCounter + " rows.");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    void hashMapStoringParallel(){
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(Paths.get("data.txt"))) {
+            // every split fills its own StringDoubleMap, the combiner copies the right map's arena into the left one
+            StringDoubleMap myMap = scanner.rows()
+                    .parallel()
+                    .filter(x -> x.fieldCount() == 3)
+                    .filter(x -> x.fieldAsDouble(2) >= 2)
+                    .collect(StringDoubleMap.fromFields(0, 2));
+            myMap.forEach((key, value) -> System.out.println(key + " " + value));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    //TAIL FOLLOW
+    // only the rows appended since the last refresh are parsed
+    void followDataFile(){
+        DataFileFollower follower = new DataFileFollower(Paths.get("data.txt"), 2);
+        try {
+            follower.follow(1000, f -> System.out.println(f.rowCount() + " rows, " + f.values()));
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //COLUMNAR SNAPSHOT
+    // data.snapshot is written on the first run and again whenever data.txt changes
+    void snapshotExamples(){
+        try {
+            ColumnarSnapshot snapshot = ColumnarSnapshot.open(Paths.get("data.txt"), Paths.get("data.snapshot"));
+            System.out.println(snapshot.wideRowCount() + " rows.");
+
+            snapshot.rows()
+                    .filter(i -> snapshot.value(i) >= 3)
+                    .forEach(i -> System.out.println(snapshot.key(snapshot.keyCode(i)) + " " + snapshot.value(i)));
+
+            StringDoubleMap myMap = snapshot.rows()
+                    .filter(i -> snapshot.value(i) >= 2)
+                    .boxed()
+                    .collect(StringDoubleMap.collector(
+                            i -> snapshot.key(snapshot.keyCode(i)),
+                            i -> snapshot.value(i)
+                    ));
+            myMap.forEach((key, value) -> System.out.println(key + " " + value));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    //FIELD PARSER
+    // same doubles (also -0.0 and NaN) and the same exceptions as Double.parseDouble on a String
+    void fieldParserCheck(){
+        List<String> inputs = new ArrayList<>(Arrays.asList(
+                // 15 significant digits take the fast path, 16 and more fall back
+                "123456789012345", "999999999999999", "0.123456789012345", "1234567890.12345",
+                "1234567890123456", "9999999999999999", "9007199254740993", "0.1234567890123456",
+                // 10^22 is the largest exact power of ten
+                "1e22", "1e-22", "1e23", "1e-23", "123456789012345e22", "123456789012345e-22",
+                "1.5e+22", "1.5e23", "4.35e-23", "1e0023", "1e400", "1e-400",
+                // signs, zeros and whitespace
+                "+1.5", "-1.5", "-0", "+0", "-0.0", "0.000", "-0e5", ".5", "5.", "-.5", " 3.7", "3.7 ", "\t-2.5e-3\n",
+                "000000000000000000001.5", "0.00000000000000000000001", "2.2250738585072014E-308", "1.7976931348623157e308",
+                // what only Double.parseDouble understands
+                "NaN", "-Infinity", "0x1p3", "1d", "1f",
+                // malformed
+                "", " ", ".", "+", "-", "e5", "1e", "1e+", "1e-", "1e5x", "1,5", "--1", "+-1", "1..5", "1.5.2", "abc"));
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder sb = new StringBuilder(random.nextBoolean() ? "-" : "");
+            int digits = 1 + random.nextInt(17);
+            int dot = random.nextInt(digits + 1);
+            for (int d = 0; d < digits; d++) {
+                if (d == dot) {
+                    sb.append('.');
+                }
+                sb.append((char) ('0' + random.nextInt(10)));
+            }
+            if (random.nextBoolean()) {
+                sb.append('e').append(random.nextInt(51) - 25);
+            }
+            inputs.add(sb.toString());
+        }
+
+        int differences = 0;
+        for (String input : inputs) {
+            String expected = parsed(() -> Double.parseDouble(input));
+            String actual = parsed(() -> {
+                ByteBuffer bytes = ByteBuffer.wrap(input.getBytes(StandardCharsets.UTF_8));
+                return FieldParser.parseDouble(bytes, 0, bytes.limit());
+            });
+            if (!expected.equals(actual)) {
+                differences++;
+                System.out.println("\"" + input + "\": " + expected + " vs " + actual);
+            }
+        }
+        System.out.println(inputs.size() + " inputs, " + differences + " differences."); //0 differences
+    }
+
+    private static String parsed(DoubleSupplier parser) {
+        try {
+            double value = parser.getAsDouble();
+            return Double.toString(value) + " (" + Long.toHexString(Double.doubleToRawLongBits(value)) + ")";
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
 
 }
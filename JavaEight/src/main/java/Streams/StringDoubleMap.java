@@ -0,0 +1,379 @@
+package Streams;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+public final class StringDoubleMap {
+    // A String -> double map without boxing: HashMap<String, Double> needs a Node, a String, its byte[] and
+    // a Double per entry (~100 bytes), here an entry is its UTF-8 key bytes plus ~24 bytes of primitive arrays.
+    //
+    // Entries are stored densely in insertion order:
+    //   keys    - one byte arena, entry i is arena[keyOffsets[i] .. keyOffsets[i + 1])
+    //   values  - double[], hashes - int[]
+    // and slots is an open addressing table (linear probing) holding entry index + 1, 0 means an empty slot.
+    // Iteration walks the dense arrays, keys are decoded to Strings only when asked for.
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private byte[] arena;
+    private int arenaSize;
+    private int[] keyOffsets;
+    private int[] hashes;
+    private double[] values;
+    private int size;
+    private int[] slots;
+    private int mask;
+
+    public StringDoubleMap() {
+        this(16);
+    }
+
+    public StringDoubleMap(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        arena = new byte[capacity * 8];
+        keyOffsets = new int[capacity + 1];
+        hashes = new int[capacity];
+        values = new double[capacity];
+        int tableSize = Integer.highestOneBit((int) Math.min(1 << 30, (long) (capacity / LOAD_FACTOR)) * 2 - 1);
+        slots = new int[Math.max(8, tableSize)];
+        mask = slots.length - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void put(String key, double value) {
+        int index = insert(key);
+        values[index < 0 ? ~index : index] = value;
+    }
+
+    // key given as a UTF-8 byte range, no String is created
+    public void put(ByteBuffer key, int start, int end, double value) {
+        int index = insert(key, start, end);
+        values[index < 0 ? ~index : index] = value;
+    }
+
+    // copies the entries of 'other', its value wins for a key in both maps; keys are copied as bytes
+    public void putAll(StringDoubleMap other) {
+        for (int i = 0; i < other.size; i++) {
+            int start = other.keyOffsets[i];
+            int index = insert(other.arena, start, other.keyOffsets[i + 1] - start, other.hashes[i]);
+            values[index < 0 ? ~index : index] = other.values[i];
+        }
+    }
+
+    public boolean containsKey(String key) {
+        return find(key) >= 0;
+    }
+
+    public double getOrDefault(String key, double defaultValue) {
+        int index = find(key);
+        return index < 0 ? defaultValue : values[index];
+    }
+
+    // entries in insertion order
+    public String keyAt(int index) {
+        checkIndex(index);
+        return new String(arena, keyOffsets[index], keyOffsets[index + 1] - keyOffsets[index], StandardCharsets.UTF_8);
+    }
+
+    public double valueAt(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void forEach(ObjDoubleConsumer<String> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(keyAt(i), values[i]);
+        }
+    }
+
+    public Map<String, Double> toMap() {
+        Map<String, Double> map = new LinkedHashMap<>(size * 2);
+        forEach(map::put);
+        return map;
+    }
+
+    // same contract as Collectors.toMap(key, value): a duplicate key is an IllegalStateException
+    public static <T> Collector<T, ?, StringDoubleMap> collector(Function<? super T, String> keyMapper,
+                                                                 ToDoubleFunction<? super T> valueMapper) {
+        return Collector.of(
+                StringDoubleMap::new,
+                (map, t) -> {
+                    String key = keyMapper.apply(t);
+                    double value = valueMapper.applyAsDouble(t);
+                    int index = map.insert(key);
+                    if (index < 0) {
+                        throw duplicateKey(key);
+                    }
+                    map.values[index] = value;
+                },
+                StringDoubleMap::mergeUnique);
+    }
+
+    // collects CsvRow fields without decoding the key field into a String
+    public static Collector<CsvRow, ?, StringDoubleMap> fromFields(int keyField, int valueField) {
+        return Collector.of(
+                StringDoubleMap::new,
+                (map, row) -> {
+                    double value = row.fieldAsDouble(valueField);
+                    int index = map.insert(row.buffer(), row.fieldStart(keyField), row.fieldEnd(keyField));
+                    if (index < 0) {
+                        throw duplicateKey(row.field(keyField));
+                    }
+                    map.values[index] = value;
+                },
+                StringDoubleMap::mergeUnique);
+    }
+
+    private StringDoubleMap mergeUnique(StringDoubleMap other) {
+        for (int i = 0; i < other.size; i++) {
+            int start = other.keyOffsets[i];
+            int index = insert(other.arena, start, other.keyOffsets[i + 1] - start, other.hashes[i]);
+            if (index < 0) {
+                throw duplicateKey(other.keyAt(i));
+            }
+            values[index] = other.values[i];
+        }
+        return this;
+    }
+
+    // entry index of the key, added with value 0 if it is new - entry indexes never change, so they can be used
+    // as dictionary codes (ColumnarSnapshot)
+    int indexOf(ByteBuffer key, int start, int end) {
+        int index = insert(key, start, end);
+        return index < 0 ? ~index : index;
+    }
+
+    int keyLength(int index) {
+        return keyOffsets[index + 1] - keyOffsets[index];
+    }
+
+    void copyKey(int index, ByteBuffer target) {
+        target.put(arena, keyOffsets[index], keyLength(index));
+    }
+
+    private static IllegalStateException duplicateKey(String key) {
+        return new IllegalStateException("Duplicate key " + key);
+    }
+
+    // HASHING AND PROBING
+    // hash of the UTF-8 bytes; for an ASCII String the chars are the bytes, so no encoding is needed
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static boolean isAscii(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int find(String key) {
+        if (!isAscii(key)) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            return find(bytes, 0, bytes.length, hash(bytes, 0, bytes.length));
+        }
+        return findAscii(key, hashAscii(key));
+    }
+
+    private int findAscii(String key, int h) {
+        for (int slot = h & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+            if (hashes[index] == h && equalsAscii(index, key)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private int find(byte[] key, int start, int length, int h) {
+        for (int slot = h & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+            if (hashes[index] == h && equalsBytes(index, key, start, length)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    // the insert methods return the index of a new entry, or ~index when the key was already there
+    private int insert(String key) {
+        if (!isAscii(key)) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            return insert(bytes, 0, bytes.length, hash(bytes, 0, bytes.length));
+        }
+        int h = hashAscii(key);
+        int existing = findAscii(key, h);
+        if (existing >= 0) {
+            return ~existing;
+        }
+        int length = key.length();
+        int index = newEntry(length, h);
+        int offset = keyOffsets[index];
+        for (int i = 0; i < length; i++) {
+            arena[offset + i] = (byte) key.charAt(i);
+        }
+        return index;
+    }
+
+    private int insert(ByteBuffer key, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + key.get(i);
+        }
+        h = mix(h);
+        int length = end - start;
+        for (int slot = h & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+            if (hashes[index] == h && keyOffsets[index + 1] - keyOffsets[index] == length) {
+                int offset = keyOffsets[index];
+                int i = 0;
+                while (i < length && arena[offset + i] == key.get(start + i)) {
+                    i++;
+                }
+                if (i == length) {
+                    return ~index;
+                }
+            }
+        }
+        int index = newEntry(length, h);
+        int offset = keyOffsets[index];
+        for (int i = 0; i < length; i++) {
+            arena[offset + i] = key.get(start + i);
+        }
+        return index;
+    }
+
+    private int insert(byte[] key, int start, int length, int h) {
+        int existing = find(key, start, length, h);
+        if (existing >= 0) {
+            return ~existing;
+        }
+        int index = newEntry(length, h);
+        System.arraycopy(key, start, arena, keyOffsets[index], length);
+        return index;
+    }
+
+    // reserves the arrays and the arena space of a new entry and links it into the table
+    private int newEntry(int keyLength, int h) {
+        if (size == values.length) {
+            int capacity = values.length + (values.length >> 1) + 1;
+            keyOffsets = Arrays.copyOf(keyOffsets, capacity + 1);
+            hashes = Arrays.copyOf(hashes, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        if (arenaSize + keyLength > arena.length) {
+            long grown = Math.max((long) arena.length * 2, (long) arenaSize + keyLength);
+            if (grown > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("key arena is full");
+            }
+            arena = Arrays.copyOf(arena, (int) grown);
+        }
+        if (size + 1 > slots.length * LOAD_FACTOR) {
+            rehash(slots.length * 2);
+        }
+        int index = size++;
+        keyOffsets[index] = arenaSize;
+        arenaSize += keyLength;
+        keyOffsets[index + 1] = arenaSize;
+        hashes[index] = h;
+        int slot = h & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = index + 1;
+        return index;
+    }
+
+    private void rehash(int tableSize) {
+        slots = new int[tableSize];
+        mask = tableSize - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = hashes[index] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = index + 1;
+        }
+    }
+
+    private static int hash(byte[] key, int start, int length) {
+        int h = 0;
+        for (int i = start; i < start + length; i++) {
+            h = 31 * h + key[i];
+        }
+        return mix(h);
+    }
+
+    private static int hashAscii(String key) {
+        int h = 0;
+        for (int i = 0; i < key.length(); i++) {
+            h = 31 * h + key.charAt(i);
+        }
+        return mix(h);
+    }
+
+    private boolean equalsAscii(int index, String key) {
+        int offset = keyOffsets[index];
+        if (keyOffsets[index + 1] - offset != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (arena[offset + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean equalsBytes(int index, byte[] key, int start, int length) {
+        int offset = keyOffsets[index];
+        if (keyOffsets[index + 1] - offset != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (arena[offset + i] != key[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("entry " + index + " of " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(keyAt(i)).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
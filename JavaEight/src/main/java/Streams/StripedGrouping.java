@@ -0,0 +1,190 @@
+package Streams;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+public final class StripedGrouping {
+    // Grouping collectors for parallel streams that neither merge one map per fork (groupingBy)
+    // nor make all threads fight over the same entries (groupingByConcurrent):
+    //
+    //   Map<Integer, List<Person>> byAge = people.parallelStream().collect(StripedGrouping.groupingBy(p -> p.age));
+    //
+    // All threads share one ConcurrentHashMap of per-key accumulators (CONCURRENT + UNORDERED, nothing to merge).
+    // An existing key is found with a lock free get, only a new key goes through putIfAbsent.
+    // The accumulators start as a single CAS updated field and spread over cache line padded stripes only when two
+    // threads collide on the same key, the way LongAdder does - counting and summing use LongAdder itself.
+    // So a million rarely shared keys cost one small object each, and a handful of hot keys scale with the threads.
+    // The order of the elements inside a group is not kept.
+
+    private StripedGrouping() {}
+
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> groupingBy(Function<? super T, ? extends K> key) {
+        return Collector.<T, ConcurrentHashMap<K, Group<T>>, Map<K, List<T>>>of(
+                ConcurrentHashMap::new,
+                (map, t) -> accumulator(map, key.apply(t), Group::new).add(t),
+                (left, right) -> {
+                    right.forEach((k, group) -> group.drainTo(accumulator(left, k, Group::new)));
+                    return left;
+                },
+                map -> {
+                    Map<K, List<T>> result = new HashMap<>(map.size() * 2);
+                    map.forEach((k, group) -> result.put(k, group.toList()));
+                    return result;
+                },
+                Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> counting(Function<? super T, ? extends K> key) {
+        return summingLong(key, t -> 1);
+    }
+
+    public static <T, K> Collector<T, ?, Map<K, Long>> summingLong(Function<? super T, ? extends K> key,
+                                                                 ToLongFunction<? super T> value) {
+        return Collector.<T, ConcurrentHashMap<K, LongAdder>, Map<K, Long>>of(
+                ConcurrentHashMap::new,
+                (map, t) -> accumulator(map, key.apply(t), LongAdder::new).add(value.applyAsLong(t)),
+                (left, right) -> {
+                    right.forEach((k, sum) -> accumulator(left, k, LongAdder::new).add(sum.sum()));
+                    return left;
+                },
+                map -> {
+                    Map<K, Long> result = new HashMap<>(map.size() * 2);
+                    map.forEach((k, sum) -> result.put(k, sum.sum()));
+                    return result;
+                },
+                Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+    }
+
+    // computeIfAbsent may lock the bin even when the key is present, get does not
+    private static <K, A> A accumulator(ConcurrentHashMap<K, A> map, K key, Supplier<A> factory) {
+        A accumulator = map.get(key);
+        if (accumulator == null) {
+            A created = factory.get();
+            accumulator = map.putIfAbsent(key, created);
+            if (accumulator == null) {
+                accumulator = created;
+            }
+        }
+        return accumulator;
+    }
+
+    private static final class Node<T> {
+        final T value;
+        final Node<T> next;
+
+        Node(T value, Node<T> next) {
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    // a lock free stack of the group's elements: first one CAS updated head, stripes once threads collide
+    private static final class Group<T> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Group, Node> HEAD =
+                AtomicReferenceFieldUpdater.newUpdater(Group.class, Node.class, "head");
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Group, Stripe[]> STRIPES =
+                AtomicReferenceFieldUpdater.newUpdater(Group.class, Stripe[].class, "stripes");
+        private static final int MAX_STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+        volatile Node<T> head;
+        volatile Stripe<T>[] stripes;
+
+        @SuppressWarnings("unchecked")
+        void add(T value) {
+            Stripe<T>[] current = stripes;
+            if (current == null) {
+                Node<T> h = head;
+                if (HEAD.compareAndSet(this, h, new Node<>(value, h))) {
+                    return;
+                }
+                STRIPES.compareAndSet(this, null, newStripes());
+                current = stripes;
+            }
+            int index = probe();
+            while (true) {
+                Stripe<T> stripe = current[index & (current.length - 1)];
+                Node<T> h = stripe.head;
+                if (Stripe.HEAD.compareAndSet(stripe, h, new Node<>(value, h))) {
+                    return;
+                }
+                index++; // collided again, move to the next stripe
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Stripe<T>[] newStripes() {
+            Stripe<T>[] created = (Stripe<T>[]) new Stripe<?>[Math.max(2, MAX_STRIPES)];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new Stripe<>();
+            }
+            return created;
+        }
+
+        private static int probe() {
+            long id = Thread.currentThread().getId();
+            return (int) (id ^ (id >>> 16)) * 0x9E3779B9 >>> 16;
+        }
+
+        // only called when no thread adds any more (combiner, finisher)
+        void drainTo(Group<T> target) {
+            for (Node<T> node = head; node != null; node = node.next) {
+                target.add(node.value);
+            }
+            Stripe<T>[] current = stripes;
+            if (current != null) {
+                for (Stripe<T> stripe : current) {
+                    for (Node<T> node = stripe.head; node != null; node = node.next) {
+                        target.add(node.value);
+                    }
+                }
+            }
+        }
+
+        List<T> toList() {
+            List<T> list = new ArrayList<>();
+            for (Node<T> node = head; node != null; node = node.next) {
+                list.add(node.value);
+            }
+            Stripe<T>[] current = stripes;
+            if (current != null) {
+                for (Stripe<T> stripe : current) {
+                    for (Node<T> node = stripe.head; node != null; node = node.next) {
+                        list.add(node.value);
+                    }
+                }
+            }
+            return list;
+        }
+    }
+
+    // the padding fields sit in the super and the sub class, the JVM keeps a super class' fields first,
+    // so the head of one stripe never shares a 64 byte cache line with the head of another one
+    @SuppressWarnings("unused")
+    private static class StripePadding {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private static class StripeHead<T> extends StripePadding {
+        volatile Node<T> head;
+    }
+
+    @SuppressWarnings("unused")
+    private static final class Stripe<T> extends StripeHead<T> {
+        @SuppressWarnings("rawtypes")
+        static final AtomicReferenceFieldUpdater<StripeHead, Node> HEAD =
+                AtomicReferenceFieldUpdater.newUpdater(StripeHead.class, Node.class, "head");
+
+        long q1, q2, q3, q4, q5, q6, q7;
+    }
+}
@@ -0,0 +1,303 @@
+package Streams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+public final class TopK {
+    // The k best elements of a stream, best first, what reduceToOneElement does for k = 1:
+    //
+    //   List<Person> oldest = people.parallelStream().collect(TopK.largestByInt(2, p -> p.age)); // [Peter, Pamela]
+    //
+    // Every fork keeps a bounded heap with its k best elements so far, worst one on top, so a fork never holds
+    // more than k elements whatever the size of the stream; the combiner moves one heap into the other.
+    // Ties are decided by encounter order, the earlier element wins, sequential or parallel:
+    // every element gets its position within the fork, the combiner shifts the positions of the right fork by
+    // the number of elements the left fork has seen (forks are always combined left with right).
+    // The ByInt / ByLong / ByDouble variants keep the keys in a long[], no Comparator calls and no boxing.
+
+    private TopK() {}
+
+    public static <T> Collector<T, ?, List<T>> largest(int k, Comparator<? super T> comparator) {
+        checkK(k);
+        return Collector.<T, ObjectHeap<T>, List<T>>of(
+                () -> new ObjectHeap<>(k, comparator),
+                ObjectHeap::add,
+                ObjectHeap::merge,
+                ObjectHeap::toList);
+    }
+
+    public static <T> Collector<T, ?, List<T>> smallest(int k, Comparator<? super T> comparator) {
+        return largest(k, comparator.reversed());
+    }
+
+    public static <T> Collector<T, ?, List<T>> largestByInt(int k, ToIntFunction<? super T> key) {
+        return byKey(k, t -> key.applyAsInt(t), true);
+    }
+
+    public static <T> Collector<T, ?, List<T>> smallestByInt(int k, ToIntFunction<? super T> key) {
+        return byKey(k, t -> key.applyAsInt(t), false);
+    }
+
+    public static <T> Collector<T, ?, List<T>> largestByLong(int k, ToLongFunction<? super T> key) {
+        return byKey(k, key, true);
+    }
+
+    public static <T> Collector<T, ?, List<T>> smallestByLong(int k, ToLongFunction<? super T> key) {
+        return byKey(k, key, false);
+    }
+
+    // ordered like Double.compare: -0.0 before 0.0, NaN after everything else
+    public static <T> Collector<T, ?, List<T>> largestByDouble(int k, ToDoubleFunction<? super T> key) {
+        return byKey(k, t -> sortableBits(key.applyAsDouble(t)), true);
+    }
+
+    public static <T> Collector<T, ?, List<T>> smallestByDouble(int k, ToDoubleFunction<? super T> key) {
+        return byKey(k, t -> sortableBits(key.applyAsDouble(t)), false);
+    }
+
+    private static <T> Collector<T, ?, List<T>> byKey(int k, ToLongFunction<? super T> key, boolean largest) {
+        checkK(k);
+        return Collector.<T, KeyedHeap<T>, List<T>>of(
+                () -> new KeyedHeap<>(k, largest),
+                (heap, t) -> heap.add(key.applyAsLong(t), t),
+                KeyedHeap::merge,
+                KeyedHeap::toList);
+    }
+
+    // a long that orders like the double as a signed long
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static void checkK(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+    }
+
+    // Arrays of at most k + 1 slots: the heap in [0, size), slot size holds the candidate being offered.
+    // They grow up to that, so a large k costs nothing for a short stream.
+    private abstract static class Heap<T> {
+        final int k;
+        Object[] elements;
+        long[] positions;
+        int size;
+        long seen;
+
+        Heap(int k) {
+            this.k = k;
+            elements = new Object[(int) Math.min(k + 1L, 16)];
+            positions = new long[elements.length];
+        }
+
+        // true if the element at i is worse than the one at j
+        abstract boolean worse(int i, int j);
+
+        abstract void swap(int i, int j);
+
+        abstract void copy(int from, int to);
+
+        abstract void grow(int capacity);
+
+        // the slot to store the next candidate in before calling offer()
+        final int candidate() {
+            if (size == elements.length) {
+                grow((int) Math.min(k + 1L, elements.length * 2L));
+            }
+            return size;
+        }
+
+        final void offer() {
+            if (size < k) {
+                siftUp(size++);
+                return;
+            }
+            if (k > 0 && worse(0, size)) {
+                copy(size, 0);
+                siftDown(0);
+            }
+            elements[size] = null;
+        }
+
+        final void offerAll(Heap<T> right) {
+            for (int i = 0; i < right.size; i++) {
+                int slot = candidate();
+                copyFrom(right, i, slot);
+                positions[slot] = right.positions[i] + seen;
+                offer();
+            }
+            seen += right.seen;
+        }
+
+        abstract void copyFrom(Heap<T> other, int from, int to);
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!worse(i, parent)) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int worst = left + 1 < size && worse(left + 1, left) ? left + 1 : left;
+                if (!worse(worst, i)) {
+                    return;
+                }
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        // heap sort: the worst element goes to the end until the heap is empty, leaving the best first
+        @SuppressWarnings("unchecked")
+        final List<T> toList() {
+            int count = size;
+            while (size > 1) {
+                swap(0, --size);
+                siftDown(0);
+            }
+            size = count;
+            List<T> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add((T) elements[i]);
+            }
+            return result;
+        }
+    }
+
+    private static final class ObjectHeap<T> extends Heap<T> {
+        private final Comparator<? super T> comparator;
+
+        ObjectHeap(int k, Comparator<? super T> comparator) {
+            super(k);
+            this.comparator = comparator;
+        }
+
+        void add(T element) {
+            int slot = candidate();
+            elements[slot] = element;
+            positions[slot] = seen++;
+            offer();
+        }
+
+        ObjectHeap<T> merge(ObjectHeap<T> right) {
+            offerAll(right);
+            return this;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        boolean worse(int i, int j) {
+            int c = comparator.compare((T) elements[i], (T) elements[j]);
+            return c != 0 ? c < 0 : positions[i] > positions[j];
+        }
+
+        @Override
+        void swap(int i, int j) {
+            Object element = elements[i];
+            elements[i] = elements[j];
+            elements[j] = element;
+            long position = positions[i];
+            positions[i] = positions[j];
+            positions[j] = position;
+        }
+
+        @Override
+        void copy(int from, int to) {
+            elements[to] = elements[from];
+            positions[to] = positions[from];
+        }
+
+        @Override
+        void copyFrom(Heap<T> other, int from, int to) {
+            elements[to] = other.elements[from];
+        }
+
+        @Override
+        void grow(int capacity) {
+            elements = Arrays.copyOf(elements, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+    }
+
+    private static final class KeyedHeap<T> extends Heap<T> {
+        private final boolean largest;
+        private long[] keys;
+
+        KeyedHeap(int k, boolean largest) {
+            super(k);
+            this.largest = largest;
+            this.keys = new long[elements.length];
+        }
+
+        void add(long key, T element) {
+            int slot = candidate();
+            keys[slot] = key;
+            elements[slot] = element;
+            positions[slot] = seen++;
+            offer();
+        }
+
+        KeyedHeap<T> merge(KeyedHeap<T> right) {
+            offerAll(right);
+            return this;
+        }
+
+        @Override
+        boolean worse(int i, int j) {
+            if (keys[i] != keys[j]) {
+                return largest == keys[i] < keys[j];
+            }
+            return positions[i] > positions[j];
+        }
+
+        @Override
+        void swap(int i, int j) {
+            Object element = elements[i];
+            elements[i] = elements[j];
+            elements[j] = element;
+            long position = positions[i];
+            positions[i] = positions[j];
+            positions[j] = position;
+            long key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+        }
+
+        @Override
+        void copy(int from, int to) {
+            elements[to] = elements[from];
+            positions[to] = positions[from];
+            keys[to] = keys[from];
+        }
+
+        @Override
+        void copyFrom(Heap<T> other, int from, int to) {
+            elements[to] = other.elements[from];
+            keys[to] = ((KeyedHeap<T>) other).keys[from];
+        }
+
+        @Override
+        void grow(int capacity) {
+            elements = Arrays.copyOf(elements, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package Streams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public final class UuidSort {
+    // Sorts UUID.toString() values without comparing Strings.
+    // A canonical UUID string ("8-4-4-4-12" lowercase hex) orders exactly like its 128 bit value read as an
+    // unsigned number, so every string is packed into two longs and the longs are sorted with an LSD radix sort:
+    // one pass per byte, passes where all keys share the byte (e.g. the version nibble) are skipped.
+    // Each pass counts the bytes per chunk of the array and then scatters the chunks, both in parallel.
+    // The sorted keys are decoded back into Strings (in parallel too), the result is a mutable ArrayList
+    // on both paths.
+    //
+    // Anything that is not a canonical lowercase UUID (upper case, braces, other text) is sorted the usual way,
+    // so the result is always the same as sorted().
+
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+    private static final int RADIX = 256;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < HEX.length; i++) {
+            HEX_VALUES[HEX[i]] = (byte) i;
+        }
+    }
+
+    private UuidSort() {}
+
+    public static List<String> sort(List<String> uuids) {
+        return sort(uuids, uuids.size() >= PARALLEL_THRESHOLD);
+    }
+
+    public static List<String> sort(List<String> uuids, boolean parallel) {
+        // get(i) walks a LinkedList from its end, one O(n) copy instead of O(n) per element
+        List<String> indexed = uuids instanceof RandomAccess ? uuids : Arrays.asList(uuids.toArray(new String[0]));
+        int size = indexed.size();
+        long[] high = new long[size];
+        long[] low = new long[size];
+        IntStream indexes = IntStream.range(0, size);
+        boolean canonical = (parallel ? indexes.parallel() : indexes)
+                .allMatch(i -> encode(indexed.get(i), i, high, low));
+        if (!canonical) {
+            List<String> copy = new ArrayList<>(indexed);
+            Collections.sort(copy);
+            return copy;
+        }
+        long[] scratchHigh = new long[size];
+        long[] scratchLow = new long[size];
+        int chunks = parallel ? Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 4, size / 4096)) : 1;
+
+        // the low word holds the less significant digits, so it is sorted first
+        long[][] keys = {low, high, scratchLow, scratchHigh};
+        for (int word = 0; word < 2; word++) {
+            for (int shift = 0; shift < 64; shift += 8) {
+                if (pass(keys, word, shift, size, chunks, parallel)) {
+                    long[] swap = keys[0];
+                    keys[0] = keys[2];
+                    keys[2] = swap;
+                    swap = keys[1];
+                    keys[1] = keys[3];
+                    keys[3] = swap;
+                }
+            }
+        }
+        return decode(keys[1], keys[0], parallel);
+    }
+
+    // lazy: nothing is read or sorted before the terminal operation
+    public static Stream<String> sorted(Stream<String> uuids) {
+        return StreamSupport.stream(
+                () -> sort(uuids.collect(Collectors.toList()), uuids.isParallel()).spliterator(),
+                Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED,
+                uuids.isParallel())
+                .onClose(uuids::close);
+    }
+
+    // one stable counting pass on the byte at 'shift' of keys[word], from keys[0..1] into keys[2..3];
+    // returns false (and moves nothing) when every key has the same byte there
+    private static boolean pass(long[][] keys, int word, int shift, int size, int chunks, boolean parallel) {
+        long[] digits = keys[word];
+        int[][] counts = new int[chunks][RADIX];
+        IntStream chunkIndexes = parallel ? IntStream.range(0, chunks).parallel() : IntStream.range(0, chunks);
+        chunkIndexes.forEach(chunk -> {
+            int[] count = counts[chunk];
+            for (int i = chunkStart(chunk, chunks, size), end = chunkStart(chunk + 1, chunks, size); i < end; i++) {
+                count[(int) (digits[i] >>> shift) & 0xFF]++;
+            }
+        });
+
+        int offset = 0;
+        for (int digit = 0; digit < RADIX; digit++) {
+            int total = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int count = counts[chunk][digit];
+                counts[chunk][digit] = offset + total;
+                total += count;
+            }
+            if (total == size) {
+                return false;
+            }
+            offset += total;
+        }
+
+        long[] fromLow = keys[0];
+        long[] fromHigh = keys[1];
+        long[] toLow = keys[2];
+        long[] toHigh = keys[3];
+        chunkIndexes = parallel ? IntStream.range(0, chunks).parallel() : IntStream.range(0, chunks);
+        chunkIndexes.forEach(chunk -> {
+            int[] next = counts[chunk];
+            for (int i = chunkStart(chunk, chunks, size), end = chunkStart(chunk + 1, chunks, size); i < end; i++) {
+                int target = next[(int) (digits[i] >>> shift) & 0xFF]++;
+                toLow[target] = fromLow[i];
+                toHigh[target] = fromHigh[i];
+            }
+        });
+        return true;
+    }
+
+    private static int chunkStart(int chunk, int chunks, int size) {
+        return (int) ((long) size * chunk / chunks);
+    }
+
+    private static boolean encode(String uuid, int index, long[] high, long[] low) {
+        if (uuid == null || uuid.length() != 36
+                || uuid.charAt(8) != '-' || uuid.charAt(13) != '-' || uuid.charAt(18) != '-' || uuid.charAt(23) != '-') {
+            return false;
+        }
+        long h = 0;
+        long l = 0;
+        int nibbles = 0;
+        for (int i = 0; i < 36; i++) {
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                continue;
+            }
+            char c = uuid.charAt(i);
+            int value = c < 128 ? HEX_VALUES[c] : -1;
+            if (value < 0) {
+                return false;
+            }
+            if (nibbles++ < 16) {
+                h = (h << 4) | value;
+            } else {
+                l = (l << 4) | value;
+            }
+        }
+        high[index] = h;
+        low[index] = l;
+        return true;
+    }
+
+    private static List<String> decode(long[] high, long[] low, boolean parallel) {
+        String[] strings = new String[high.length];
+        IntStream indexes = IntStream.range(0, strings.length);
+        (parallel ? indexes.parallel() : indexes).forEach(i -> strings[i] = decode(high[i], low[i]));
+        return new ArrayList<>(Arrays.asList(strings));
+    }
+
+    static String decode(long high, long low) {
+        char[] chars = new char[36];
+        int position = 35;
+        for (int i = 0; i < 16; i++) {
+            if (position == 23) {
+                chars[position--] = '-';
+            }
+            chars[position--] = HEX[(int) (low >>> (4 * i)) & 0xF];
+        }
+        for (int i = 0; i < 16; i++) {
+            if (position == 18 || position == 13 || position == 8) {
+                chars[position--] = '-';
+            }
+            chars[position--] = HEX[(int) (high >>> (4 * i)) & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,112 @@
+package Streams;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CollectorBenchmark {
+    // The collectors of AdvancedStreamOperations on a generated list of people, sequential and parallel.
+
+    @Param({"1000", "1000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean parallel;
+
+    List<Person> people;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        people = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            people.add(new Person("Person" + random.nextInt(size), random.nextInt(100)));
+        }
+    }
+
+    Stream<Person> stream() {
+        return parallel ? people.parallelStream() : people.stream();
+    }
+
+    @Benchmark
+    public Map<Integer, List<Person>> groupPeople() {
+        return stream().collect(Collectors.groupingBy(p -> p.age));
+    }
+
+    @Benchmark
+    public LongGroups<Person> groupPeopleByAge() {
+        return stream().collect(PrimitiveGrouping.groupingByInt(p -> p.age, 0, 150));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> countByAge() {
+        return stream().collect(Collectors.groupingBy(p -> p.age, Collectors.counting()));
+    }
+
+    @Benchmark
+    public LongSums countByAgePrimitive() {
+        return stream().collect(PrimitiveGrouping.countingByInt(p -> p.age, 0, 150));
+    }
+
+    @Benchmark
+    public List<Person> sortedLimit10() {
+        return stream().sorted(Comparator.comparingInt((Person p) -> p.age).reversed()).limit(10).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Person> top10ByAge() {
+        return stream().collect(TopK.largestByInt(10, p -> p.age));
+    }
+
+    @Benchmark
+    public double averagingInt() {
+        return stream().collect(Collectors.averagingInt(p -> p.age));
+    }
+
+    @Benchmark
+    public IntSummaryStatistics summarizingInt() {
+        return stream().collect(Collectors.summarizingInt(p -> p.age));
+    }
+
+    @Benchmark
+    public ColumnStatistics columnStatistics() {
+        return stream().collect(ColumnStatistics.ofInt(p -> p.age));
+    }
+
+    @Benchmark
+    public PersonAggregate personAggregate() {
+        return stream().collect(PersonAggregate.collector());
+    }
+
+    @Benchmark
+    public String allCollectorCombination() {
+        Collector<Person, StringJoiner, String> personNameCollector =
+                Collector.of(
+                        () -> new StringJoiner(" + "),
+                        (j, p) -> j.add(p.name.toUpperCase()),
+                        (j1, j2) -> j1.merge(j2),
+                        StringJoiner::toString);
+        return stream().collect(personNameCollector);
+    }
+
+    @Benchmark
+    public String chunkedJoining() {
+        return stream().map(p -> p.name).collect(ChunkedJoiner.joiningUpperCase(" + "));
+    }
+}
@@ -0,0 +1,68 @@
+package Streams;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConcurrentGroupingBenchmark {
+    // groupPeople run in parallel: groupingBy (one map per fork, merged), groupingByConcurrent (one shared map)
+    // and StripedGrouping, with few keys every thread hits (100 ages) and with about as many keys as people.
+
+    @Param({"1000000"})
+    int size;
+
+    @Param({"100", "1000000"})
+    int cardinality;
+
+    List<Person> people;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        people = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            people.add(new Person("Person" + i, random.nextInt(cardinality)));
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, List<Person>> groupingBy() {
+        return people.parallelStream().collect(Collectors.groupingBy(p -> p.age));
+    }
+
+    @Benchmark
+    public Map<Integer, List<Person>> groupingByConcurrent() {
+        return people.parallelStream().collect(Collectors.groupingByConcurrent(p -> p.age));
+    }
+
+    @Benchmark
+    public Map<Integer, List<Person>> stripedGrouping() {
+        return people.parallelStream().collect(StripedGrouping.groupingBy(p -> p.age));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> countingBy() {
+        return people.parallelStream().collect(Collectors.groupingBy(p -> p.age, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> countingByConcurrent() {
+        return people.parallelStream().collect(Collectors.groupingByConcurrent(p -> p.age, Collectors.counting()));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> stripedCounting() {
+        return people.parallelStream().collect(StripedGrouping.counting(p -> p.age));
+    }
+}
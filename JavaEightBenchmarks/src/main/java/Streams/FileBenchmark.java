@@ -0,0 +1,99 @@
+package Streams;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class FileBenchmark {
+    // The StreamsExamples file pipelines on a generated "key, int, double" file with unique keys:
+    // Files.lines + split against the mapped scanner, sequential and parallel.
+
+    @Param({"100000", "1000000"})
+    int rows;
+
+    Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("data", ".txt");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < rows; i++) {
+                writer.write("K" + i + ", " + random.nextInt(100) + ", " + random.nextInt(500) / 100.0);
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long charRemoveCount() throws IOException {
+        try (Stream<String> myRows = Files.lines(file)) {
+            return myRows.map(x -> x.split(",")).filter(x -> x.length >= 3).count();
+        }
+    }
+
+    @Benchmark
+    public long charRemoveCountMapped() throws IOException {
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(file)) {
+            return scanner.rows().filter(x -> x.fieldCount() >= 3).count();
+        }
+    }
+
+    @Benchmark
+    public long charRemoveCountParallel() throws IOException {
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(file)) {
+            return scanner.rows().parallel().filter(x -> x.fieldCount() >= 3).count();
+        }
+    }
+
+    @Benchmark
+    public Map<String, Double> hashMapStoring() throws IOException {
+        try (Stream<String> myRows = Files.lines(file)) {
+            return myRows
+                    .map(x -> x.split(","))
+                    .filter(x -> x.length == 3)
+                    .filter(x -> Double.parseDouble(x[2]) >= 2)
+                    .collect(Collectors.toMap(x -> x[0], x -> Double.parseDouble(x[2])));
+        }
+    }
+
+    @Benchmark
+    public StringDoubleMap hashMapStoringMapped() throws IOException {
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(file)) {
+            return scanner.rows()
+                    .filter(x -> x.fieldCount() == 3)
+                    .filter(x -> x.fieldAsDouble(2) >= 2)
+                    .collect(StringDoubleMap.fromFields(0, 2));
+        }
+    }
+
+    @Benchmark
+    public StringDoubleMap hashMapStoringParallel() throws IOException {
+        try (MappedCsvScanner scanner = MappedCsvScanner.open(file)) {
+            return scanner.rows()
+                    .parallel()
+                    .filter(x -> x.fieldCount() == 3)
+                    .filter(x -> x.fieldAsDouble(2) >= 2)
+                    .collect(StringDoubleMap.fromFields(0, 2));
+        }
+    }
+}
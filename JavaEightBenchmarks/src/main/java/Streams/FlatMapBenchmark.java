@@ -0,0 +1,75 @@
+package Streams;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FlatMapBenchmark {
+    // flatMapper / fasterFlatMapper on many parents with three children each: a list per parent streamed by
+    // flatMap, a child stream per parent, and Flattening.mapMulti pushing the children without either.
+
+    @Param({"1000000"})
+    int parents;
+
+    List<AdvancedStreamOperations.Foo> foos;
+
+    @Setup
+    public void setUp() {
+        foos = new ArrayList<>(parents);
+        for (int i = 0; i < parents; i++) {
+            foos.add(new AdvancedStreamOperations.Foo("Foo" + i));
+        }
+    }
+
+    @Benchmark
+    public long flatMapLists() {
+        return foos.stream()
+                .peek(f -> {
+                    List<AdvancedStreamOperations.Bar> bars = new ArrayList<>();
+                    for (int i = 1; i < 4; i++) {
+                        bars.add(new AdvancedStreamOperations.Bar(f.name));
+                    }
+                    f.bars = bars;
+                })
+                .flatMap(f -> f.bars.stream())
+                .count();
+    }
+
+    @Benchmark
+    public long flatMapStreams() {
+        return foos.stream()
+                .flatMap(f -> IntStream.range(1, 4).mapToObj(i -> new AdvancedStreamOperations.Bar(f.name)))
+                .count();
+    }
+
+    @Benchmark
+    public long mapMulti() {
+        return Flattening.<AdvancedStreamOperations.Foo, AdvancedStreamOperations.Bar>mapMulti(foos.stream(), (f, sink) -> {
+                    for (int i = 1; i < 4; i++) {
+                        sink.accept(new AdvancedStreamOperations.Bar(f.name));
+                    }
+                })
+                .count();
+    }
+
+    @Benchmark
+    public Object mapMultiFindFirst() {
+        return Flattening.<AdvancedStreamOperations.Foo, AdvancedStreamOperations.Bar>mapMulti(foos.stream(), (f, sink) -> {
+                    for (int i = 1; i < 4; i++) {
+                        sink.accept(new AdvancedStreamOperations.Bar(f.name));
+                    }
+                })
+                .filter(b -> b.name.endsWith("99999"))
+                .findFirst()
+                .orElse(null);
+    }
+}
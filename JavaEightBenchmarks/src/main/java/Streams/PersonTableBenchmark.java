@@ -0,0 +1,62 @@
+package Streams;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PersonTableBenchmark {
+    // Age aggregations over a List<Person> (a pointer per person) and over the columns of a PersonTable.
+
+    @Param({"10000000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean offHeap;
+
+    List<Person> people;
+    PersonTable table;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        people = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            people.add(new Person("Person" + random.nextInt(1000), random.nextInt(100)));
+        }
+        table = PersonTable.from(people, offHeap);
+    }
+
+    @Benchmark
+    public long listAgeSum() {
+        return people.stream().mapToLong(p -> p.age).sum();
+    }
+
+    @Benchmark
+    public long tableAgeSum() {
+        return table.ageSum();
+    }
+
+    @Benchmark
+    public long tableAgeStreamSum() {
+        return table.ages().asLongStream().sum();
+    }
+
+    @Benchmark
+    public long listFilteredAgeSum() {
+        return people.stream().filter(p -> p.age >= 18 && p.name.startsWith("Person1")).mapToLong(p -> p.age).sum();
+    }
+
+    @Benchmark
+    public long tableFilteredAgeSum() {
+        return table.ageSum(table.selectName(table.selectAge(age -> age >= 18), name -> name.startsWith("Person1")));
+    }
+}
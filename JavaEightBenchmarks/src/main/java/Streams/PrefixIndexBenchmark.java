@@ -0,0 +1,59 @@
+package Streams;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PrefixIndexBenchmark {
+    // The startsWith count and filter of BasicStreamingTools as a scan and through a PrefixIndex.
+
+    @Param({"1000000"})
+    int size;
+
+    @Param({"ab", "abcd"})
+    String prefix;
+
+    List<String> values;
+    PrefixIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+        index = PrefixIndex.of(values);
+    }
+
+    @Benchmark
+    public long scanCount() {
+        return values.stream().filter(s -> s.startsWith(prefix)).count();
+    }
+
+    @Benchmark
+    public long indexCount() {
+        return index.count(prefix);
+    }
+
+    @Benchmark
+    public List<String> scanFilter() {
+        return values.stream().filter(s -> s.startsWith(prefix)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> indexStream() {
+        return index.stream(prefix).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,65 @@
+package Streams;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class QueryBenchmark {
+    // sortingDeeply on a large list: the stream as written (sort, then filter) against the same pipeline as a Query.
+
+    @Param({"1000000"})
+    int size;
+
+    List<String> values;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+    }
+
+    @Benchmark
+    public List<String> streamSortThenFilter() {
+        return values.stream().sorted().filter(s -> s.startsWith("a")).map(String::toUpperCase).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> querySortThenFilter() {
+        return Query.from(values).sorted().filter(s -> s.startsWith("a")).map(String::toUpperCase).toList();
+    }
+
+    @Benchmark
+    public Optional<String> streamSortedFindFirst() {
+        return values.stream().sorted().filter(s -> s.startsWith("a")).findFirst();
+    }
+
+    @Benchmark
+    public Optional<String> querySortedFindFirst() {
+        return Query.from(values).sorted().filter(s -> s.startsWith("a")).findFirst();
+    }
+
+    @Benchmark
+    public List<String> streamSortedLimit() {
+        return values.stream().sorted().limit(10).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> querySortedLimit() {
+        return Query.from(values).sorted().limit(10).toList();
+    }
+}
@@ -0,0 +1,55 @@
+package Streams;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SortBenchmark {
+    // ParallelStreams.sequentialSort / parallelSort with warmup and forks, against UuidSort.
+    // The sorted elements are consumed: on Java 9+ sorted().count() on a sized list is answered without sorting.
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    List<String> values;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+    }
+
+    @Benchmark
+    public void sequentialSort(Blackhole blackhole) {
+        values.stream().sorted().forEachOrdered(blackhole::consume);
+    }
+
+    @Benchmark
+    public void parallelSort(Blackhole blackhole) {
+        values.parallelStream().sorted().forEachOrdered(blackhole::consume);
+    }
+
+    @Benchmark
+    public void radixSort(Blackhole blackhole) {
+        UuidSort.sort(values, false).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void parallelRadixSort(Blackhole blackhole) {
+        UuidSort.sort(values, true).forEach(blackhole::consume);
+    }
+}
@@ -0,0 +1,72 @@
+package combinatorpattern;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AdultCutoffBenchmark {
+    // The age rule over a batch of birth dates: LocalDate.now() and Period.between per date, as the rule was
+    // written before, against AdultCutoff.
+
+    @Param({"10000"})
+    int size;
+
+    LocalDate[] birthDates;
+    long[] birthEpochDays;
+    AdultCutoff cutoff;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        birthDates = new LocalDate[size];
+        birthEpochDays = new long[size];
+        for (int i = 0; i < size; i++) {
+            birthDates[i] = LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            birthEpochDays[i] = birthDates[i].toEpochDay();
+        }
+        cutoff = AdultCutoff.systemDefault();
+    }
+
+    @Benchmark
+    public int period() {
+        int adults = 0;
+        for (LocalDate birthDate : birthDates) {
+            if (Period.between(birthDate, LocalDate.now()).getYears() >= 18) {
+                adults++;
+            }
+        }
+        return adults;
+    }
+
+    @Benchmark
+    public int cutoff() {
+        int adults = 0;
+        for (LocalDate birthDate : birthDates) {
+            if (cutoff.isAdult(birthDate)) {
+                adults++;
+            }
+        }
+        return adults;
+    }
+
+    @Benchmark
+    public int cutoffEpochDays() {
+        long day = cutoff.cutoffEpochDay();
+        int adults = 0;
+        for (long birthEpochDay : birthEpochDays) {
+            if (birthEpochDay <= day) {
+                adults++;
+            }
+        }
+        return adults;
+    }
+}
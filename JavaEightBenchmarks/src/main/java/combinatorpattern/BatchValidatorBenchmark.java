@@ -0,0 +1,89 @@
+package combinatorpattern;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static combinatorpattern.CustomerRegistrationValidator.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BatchValidatorBenchmark {
+    // The validator chain of Main over a batch of customers with about a third of them invalid:
+    // one apply per customer in a loop against BatchValidator (run with -t / different core counts to see it scale),
+    // the loop with the rules in an AdaptiveValidator, and the loop collecting all failures as a bit mask.
+    // loopAdaptiveFirstFailure is the baseline for the adaptive overhead: it runs at least the rules loop runs.
+
+    @Param({"1000000"})
+    int size;
+
+    List<Customer> customers;
+    CustomerRegistrationValidator validator;
+    MaskValidator allFailures;
+    AdaptiveValidator adaptive;
+    AdaptiveValidator adaptiveFirstFailure;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        customers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            customers.add(new Customer("Customer" + i,
+                    random.nextInt(10) == 0 ? "customer.gmail.com" : "customer@gmail.com",
+                    random.nextInt(10) == 0 ? "+44535325" : "+48535325",
+                    LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28))));
+        }
+        validator = isEmailValid().and(isPhoneNumberValid()).and(isAdult());
+        allFailures = isEmailValid().andAlso(isPhoneNumberValid()).andAlso(isAdult());
+        adaptive = AdaptiveValidator.anyFailure(isEmailValid(), isPhoneNumberValid(), isAdult());
+        adaptiveFirstFailure = AdaptiveValidator.firstFailure(isEmailValid(), isPhoneNumberValid(), isAdult());
+    }
+
+    @Benchmark
+    public int loop() {
+        return loop(validator);
+    }
+
+    // every violated rule of every customer, or-ed together
+    @Benchmark
+    public long loopAllFailures() {
+        long failures = 0;
+        for (Customer customer : customers) {
+            failures |= allFailures.validate(customer);
+        }
+        return failures;
+    }
+
+    @Benchmark
+    public int loopAdaptive() {
+        return loop(adaptive);
+    }
+
+    @Benchmark
+    public int loopAdaptiveFirstFailure() {
+        return loop(adaptiveFirstFailure);
+    }
+
+    int loop(CustomerRegistrationValidator validator) {
+        int failures = 0;
+        for (Customer customer : customers) {
+            if (validator.apply(customer) != ValidationResult.SUCCESS) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    @Benchmark
+    public BatchValidator.Report batch() {
+        return BatchValidator.of(validator).validate(customers);
+    }
+}
@@ -0,0 +1,91 @@
+package combinatorpattern;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static combinatorpattern.CustomerRegistrationValidator.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ValidatorCompilerBenchmark {
+    // A chain of 'depth' built-in rules (email, phone number, adult, email, ...) over valid customers, so every
+    // rule runs: and() as it used to be (a lambda around each and()), the flat ValidatorChain and() returns now,
+    // and the chain compiled by ValidatorCompiler. With customRules every fourth rule is one of three lambdas,
+    // which makes the calls in the chain megamorphic; the compiled chain still runs the built-in rules inline.
+
+    @Param({"3", "10", "30"})
+    int depth;
+
+    @Param({"false", "true"})
+    boolean customRules;
+
+    Customer[] customers;
+    CustomerRegistrationValidator lambdaTower;
+    CustomerRegistrationValidator chain;
+    CustomerRegistrationValidator compiled;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        customers = new Customer[1024];
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = new Customer("Customer" + i, "customer" + i + "@gmail.com", "+48" + random.nextInt(1000000),
+                    LocalDate.of(1940 + random.nextInt(60), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+        }
+        CustomerRegistrationValidator[] rules = customRules
+                ? new CustomerRegistrationValidator[] {isEmailValid(), isPhoneNumberValid(), isAdult(),
+                        c -> c.getName().isEmpty() ? ValidationResult.EMAIL_NOT_VALID : ValidationResult.SUCCESS,
+                        isEmailValid(), isPhoneNumberValid(), isAdult(),
+                        c -> c.getEmail().length() > 100 ? ValidationResult.EMAIL_NOT_VALID : ValidationResult.SUCCESS,
+                        isEmailValid(), isPhoneNumberValid(), isAdult(),
+                        c -> c.getPhoneNumber().length() > 20 ? ValidationResult.PHONE_NUMBER_NOT_VALID : ValidationResult.SUCCESS}
+                : new CustomerRegistrationValidator[] {isEmailValid(), isPhoneNumberValid(), isAdult()};
+        lambdaTower = rules[0];
+        chain = rules[0];
+        for (int i = 1; i < depth; i++) {
+            lambdaTower = lambdaAnd(lambdaTower, rules[i % rules.length]);
+            chain = chain.and(rules[i % rules.length]);
+        }
+        compiled = ValidatorCompiler.compile(chain);
+    }
+
+    // the and() of the original CustomerRegistrationValidator
+    static CustomerRegistrationValidator lambdaAnd(CustomerRegistrationValidator first, CustomerRegistrationValidator other) {
+        return customer -> {
+            ValidationResult result = first.apply(customer);
+            return result.equals(ValidationResult.SUCCESS) ? other.apply(customer) : result;
+        };
+    }
+
+    @Benchmark
+    public int lambdaTower() {
+        return run(lambdaTower);
+    }
+
+    @Benchmark
+    public int chain() {
+        return run(chain);
+    }
+
+    @Benchmark
+    public int compiled() {
+        return run(compiled);
+    }
+
+    int run(CustomerRegistrationValidator validator) {
+        int failures = 0;
+        for (Customer customer : customers) {
+            if (validator.apply(customer) != ValidationResult.SUCCESS) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,151 @@
+package combinatorpattern;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+public final class AdaptiveValidator implements CustomerRegistrationValidator {
+    // Like rule1.and(rule2).and(rule3), but the rules run in the order that rejects a bad customer cheapest:
+    //
+    //   CustomerRegistrationValidator validator = AdaptiveValidator.anyFailure(isEmailValid(), isPhoneNumberValid(), isAdult());
+    //
+    // About one customer in SAMPLE_PERIOD is a sample: all rules run on it in declared order, each one timed,
+    // and the failures counted. Every WINDOW samples the rules are sorted by cost / rejection rate (the rule
+    // that rejects the most per nanosecond first) and the statistics start over, so the order follows the input.
+    //
+    // anyFailure returns the first failure in the current order, which may change from run to run: an invalid
+    // customer stops at the cheapest rule that rejects it, a valid customer still runs every rule.
+    // firstFailure returns exactly what the and() chain returns: when a rule fails, the rules declared before it
+    // that did not run yet are checked too, in declared order, and the first one failing wins. That is every rule
+    // and() runs, and maybe more, so firstFailure costs at least as much as and() - it only makes sense where
+    // the same validator has to give and()'s answers while its statistics are watched.
+    // Thread safe, the statistics are LongAdders written on samples only.
+
+    static final int SAMPLE_PERIOD = 64;
+    static final int WINDOW = 1024;
+
+    public enum Mode { FIRST_FAILURE, ANY_FAILURE }
+
+    private final CustomerRegistrationValidator[] rules;
+    private final Mode mode;
+    private final LongAdder[] nanos;
+    private final LongAdder[] rejections;
+    private final AtomicLong samples = new AtomicLong();
+    private volatile Plan plan;
+
+    private AdaptiveValidator(Mode mode, CustomerRegistrationValidator[] rules) {
+        if (rules.length == 0) {
+            throw new IllegalArgumentException("no rules");
+        }
+        this.rules = rules.clone();
+        this.mode = mode;
+        this.nanos = new LongAdder[rules.length];
+        this.rejections = new LongAdder[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            nanos[i] = new LongAdder();
+            rejections[i] = new LongAdder();
+        }
+        this.plan = new Plan(IntStream.range(0, rules.length).toArray());
+    }
+
+    public static AdaptiveValidator firstFailure(CustomerRegistrationValidator... rules) {
+        return new AdaptiveValidator(Mode.FIRST_FAILURE, rules);
+    }
+
+    public static AdaptiveValidator anyFailure(CustomerRegistrationValidator... rules) {
+        return new AdaptiveValidator(Mode.ANY_FAILURE, rules);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // declared positions of the rules in the order they run now
+    public int[] getOrder() {
+        return plan.order.clone();
+    }
+
+    @Override
+    public ValidationResult apply(Customer customer) {
+        if (ThreadLocalRandom.current().nextInt(SAMPLE_PERIOD) == 0) {
+            return sample(customer);
+        }
+        Plan current = plan;
+        int[] order = current.order;
+        for (int k = 0; k < order.length; k++) {
+            int rule = order[k];
+            ValidationResult result = rules[rule].apply(customer);
+            if (result != ValidationResult.SUCCESS) {
+                return mode == Mode.ANY_FAILURE ? result : firstDeclaredFailure(customer, current, k, rule, result);
+            }
+        }
+        return ValidationResult.SUCCESS;
+    }
+
+    // 'rule' failed at step k: the rules declared before it and not run yet decide
+    private ValidationResult firstDeclaredFailure(Customer customer, Plan current, int k, int rule, ValidationResult failure) {
+        for (int earlier = 0; earlier < rule; earlier++) {
+            if (current.step[earlier] > k) {
+                ValidationResult result = rules[earlier].apply(customer);
+                if (result != ValidationResult.SUCCESS) {
+                    return result;
+                }
+            }
+        }
+        return failure;
+    }
+
+    private ValidationResult sample(Customer customer) {
+        ValidationResult first = ValidationResult.SUCCESS;
+        for (int rule = 0; rule < rules.length; rule++) {
+            long start = System.nanoTime();
+            ValidationResult result = rules[rule].apply(customer);
+            nanos[rule].add(System.nanoTime() - start);
+            if (result != ValidationResult.SUCCESS) {
+                rejections[rule].increment();
+                if (first == ValidationResult.SUCCESS) {
+                    first = result;
+                }
+            }
+        }
+        if (samples.incrementAndGet() % WINDOW == 0) {
+            reorder();
+        }
+        return first;
+    }
+
+    private synchronized void reorder() {
+        double[] score = new double[rules.length];
+        for (int rule = 0; rule < rules.length; rule++) {
+            // a rule that rejected nothing in the window goes behind the ones that did, ordered by its cost
+            score[rule] = (nanos[rule].sumThenReset() + 1.0) / (rejections[rule].sumThenReset() + 1e-3);
+        }
+        // a stable sort: equal scores keep the declared order
+        plan = new Plan(IntStream.range(0, rules.length).boxed()
+                .sorted(Comparator.comparingDouble(rule -> score[rule]))
+                .mapToInt(Integer::intValue)
+                .toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveValidator[" + mode + ", order " + Arrays.toString(plan.order) + "]";
+    }
+
+    // order[k] is the rule that runs k-th, step[rule] its k
+    private static final class Plan {
+        final int[] order;
+        final int[] step;
+
+        Plan(int[] order) {
+            this.order = order;
+            this.step = new int[order.length];
+            for (int k = 0; k < order.length; k++) {
+                step[order[k]] = k;
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package combinatorpattern;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+public final class AdultCutoff {
+    // "at least 18 years old" without LocalDate.now() and a Period per customer:
+    // Period.between(birthDate, today).getYears() >= 18 is the same as birthDate <= today.minusYears(18)
+    // (also for 29 February), so the rule compares epoch days with the cutoff day.
+    // The cutoff is computed for the clock's current day and reused until the clock passes midnight in the
+    // clock's zone, a check costs one clock.millis() and no allocation.
+    // With a fixed or offset Clock the answer around midnight or a birthday can be tested.
+
+    private static final int ADULT_AGE = 18;
+
+    private final Clock clock;
+    private volatile Day day;
+
+    private AdultCutoff(Clock clock) {
+        this.clock = clock;
+        this.day = new Day(LocalDate.now(clock), clock.getZone());
+    }
+
+    public static AdultCutoff of(Clock clock) {
+        return new AdultCutoff(clock);
+    }
+
+    public static AdultCutoff systemDefault() {
+        return new AdultCutoff(Clock.systemDefaultZone());
+    }
+
+    public boolean isAdult(LocalDate birthDate) {
+        return birthDate.toEpochDay() <= cutoffEpochDay();
+    }
+
+    public boolean isAdult(long birthEpochDay) {
+        return birthEpochDay <= cutoffEpochDay();
+    }
+
+    // the latest birth day (as LocalDate.toEpochDay()) of an adult today, for loops over many birth days
+    public long cutoffEpochDay() {
+        long now = clock.millis();
+        Day current = day;
+        if (now < current.startMillis || now >= current.endMillis) {
+            current = new Day(LocalDate.now(clock), clock.getZone());
+            day = current;
+        }
+        return current.cutoffEpochDay;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    private static final class Day {
+        final long startMillis;
+        final long endMillis;
+        final long cutoffEpochDay;
+
+        Day(LocalDate today, ZoneId zone) {
+            this.startMillis = today.atStartOfDay(zone).toInstant().toEpochMilli();
+            this.endMillis = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            this.cutoffEpochDay = today.minusYears(ADULT_AGE).toEpochDay();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package combinatorpattern;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import combinatorpattern.CustomerRegistrationValidator.ValidationResult;
+
+public final class BatchValidator {
+    // Applies one (composed) validator to a whole batch of customers in parallel:
+    //
+    //   BatchValidator.Report report = BatchValidator.of(isEmailValid().and(isPhoneNumberValid()).and(isAdult()))
+    //           .validate(customers);
+    //   report.count(ValidationResult.EMAIL_NOT_VALID);
+    //   report.failures(ValidationResult.EMAIL_NOT_VALID);   // indexes into customers
+    //
+    // Nothing is kept per customer: every fork of the parallel stream counts the results in a long[] indexed
+    // by the result's ordinal and appends the index (or id) of a failing customer to a growing long[] per
+    // result, the forks are merged in encounter order, so the failures come out sorted by index.
+    // maxRecordedFailures caps how many indexes are kept per result, the counts stay exact.
+
+    private static final ValidationResult[] RESULTS = ValidationResult.values();
+
+    private final CustomerRegistrationValidator validator;
+    private final int maxRecordedFailures;
+
+    private BatchValidator(CustomerRegistrationValidator validator, int maxRecordedFailures) {
+        this.validator = validator;
+        this.maxRecordedFailures = maxRecordedFailures;
+    }
+
+    public static BatchValidator of(CustomerRegistrationValidator validator) {
+        return new BatchValidator(validator, Integer.MAX_VALUE);
+    }
+
+    public static BatchValidator of(CustomerRegistrationValidator validator, int maxRecordedFailures) {
+        if (maxRecordedFailures < 0) {
+            throw new IllegalArgumentException("maxRecordedFailures must not be negative: " + maxRecordedFailures);
+        }
+        return new BatchValidator(validator, maxRecordedFailures);
+    }
+
+    // failures are reported by their index in the list
+    public Report validate(List<Customer> customers) {
+        // get(i) walks a LinkedList from its end, one O(n) copy instead of O(n) per customer
+        List<Customer> indexed = customers instanceof RandomAccess
+                ? customers
+                : Arrays.asList(customers.toArray(new Customer[0]));
+        return IntStream.range(0, indexed.size())
+                .parallel()
+                .collect(() -> new Tally(maxRecordedFailures),
+                        (tally, i) -> tally.add(validator.apply(indexed.get(i)), i),
+                        Tally::merge)
+                .toReport();
+    }
+
+    // failures are reported by the id the function gives the customer; runs in parallel if the stream is parallel
+    public Report validate(Stream<Customer> customers, ToLongFunction<? super Customer> id) {
+        return customers.collect(Collector.of(
+                () -> new Tally(maxRecordedFailures),
+                (tally, customer) -> tally.add(validator.apply(customer), id.applyAsLong(customer)),
+                (left, right) -> {
+                    left.merge(right);
+                    return left;
+                },
+                Tally::toReport));
+    }
+
+    private static final class Tally {
+        private final int maxRecorded;
+        private final long[] counts = new long[RESULTS.length];
+        private final long[][] failures = new long[RESULTS.length][];
+        private final int[] recorded = new int[RESULTS.length];
+
+        Tally(int maxRecorded) {
+            this.maxRecorded = maxRecorded;
+        }
+
+        void add(ValidationResult result, long id) {
+            int r = result.ordinal();
+            counts[r]++;
+            if (result != ValidationResult.SUCCESS) {
+                record(r, id);
+            }
+        }
+
+        private void record(int r, long id) {
+            if (recorded[r] == maxRecorded) {
+                return;
+            }
+            long[] ids = failures[r];
+            if (ids == null) {
+                ids = failures[r] = new long[Math.min(16, maxRecorded)];
+            } else if (recorded[r] == ids.length) {
+                ids = failures[r] = Arrays.copyOf(ids, (int) Math.min((long) maxRecorded, ids.length * 2L));
+            }
+            ids[recorded[r]++] = id;
+        }
+
+        // 'right' holds the customers after the ones of this tally
+        void merge(Tally right) {
+            for (int r = 0; r < RESULTS.length; r++) {
+                counts[r] += right.counts[r];
+                for (int i = 0; i < right.recorded[r] && recorded[r] < maxRecorded; i++) {
+                    record(r, right.failures[r][i]);
+                }
+            }
+        }
+
+        Report toReport() {
+            long[][] ids = new long[RESULTS.length][];
+            for (int r = 0; r < RESULTS.length; r++) {
+                ids[r] = failures[r] == null ? new long[0] : Arrays.copyOf(failures[r], recorded[r]);
+            }
+            return new Report(counts.clone(), ids);
+        }
+    }
+
+    public static final class Report {
+        private final long[] counts;
+        private final long[][] failures;
+
+        Report(long[] counts, long[][] failures) {
+            this.counts = counts;
+            this.failures = failures;
+        }
+
+        public long getTotal() {
+            return LongStream.of(counts).sum();
+        }
+
+        public long getFailureCount() {
+            return getTotal() - count(ValidationResult.SUCCESS);
+        }
+
+        public long count(ValidationResult result) {
+            return counts[result.ordinal()];
+        }
+
+        public Map<ValidationResult, Long> histogram() {
+            Map<ValidationResult, Long> histogram = new EnumMap<>(ValidationResult.class);
+            for (ValidationResult result : RESULTS) {
+                histogram.put(result, counts[result.ordinal()]);
+            }
+            return histogram;
+        }
+
+        // indexes or ids of the customers that failed with 'result', in encounter order (empty for SUCCESS)
+        public long[] failures(ValidationResult result) {
+            return failures[result.ordinal()].clone();
+        }
+
+        @Override
+        public String toString() {
+            return "Report" + histogram();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package combinatorpattern;
+
+import combinatorpattern.CustomerRegistrationValidator.ValidationResult;
+
+final class BuiltInRule implements CustomerRegistrationValidator {
+    // The rules behind the static factories of CustomerRegistrationValidator, as objects the ValidatorCompiler
+    // can recognize: 'code' says which rule it is, check() is the rule itself.
+
+    static final int EMAIL = 0;
+    static final int PHONE_NUMBER = 1;
+    static final int ADULT = 2;
+
+    static final BuiltInRule EMAIL_VALID = new BuiltInRule(EMAIL, null);
+    static final BuiltInRule PHONE_NUMBER_VALID = new BuiltInRule(PHONE_NUMBER, null);
+
+    final int code;
+    final AdultCutoff cutoff; // ADULT only
+
+    BuiltInRule(int code, AdultCutoff cutoff) {
+        this.code = code;
+        this.cutoff = cutoff;
+    }
+
+    static BuiltInRule adult(AdultCutoff cutoff) {
+        return new BuiltInRule(ADULT, cutoff);
+    }
+
+    @Override
+    public ValidationResult apply(Customer customer) {
+        return check(code, cutoff, customer);
+    }
+
+    static ValidationResult check(int code, AdultCutoff cutoff, Customer customer) {
+        switch (code) {
+            case EMAIL:
+                return customer.getEmail().contains("@") ? ValidationResult.SUCCESS : ValidationResult.EMAIL_NOT_VALID;
+            case PHONE_NUMBER:
+                return customer.getPhoneNumber().startsWith("+48") ? ValidationResult.SUCCESS : ValidationResult.PHONE_NUMBER_NOT_VALID;
+            case ADULT:
+                return cutoff.isAdult(customer.getLocalDate()) ? ValidationResult.SUCCESS : ValidationResult.IS_NOT_AN_ADULT;
+            default:
+                throw new IllegalStateException("unknown rule " + code);
+        }
+    }
+
+    @Override
+    public String toString() {
+        switch (code) {
+            case EMAIL:
+                return "isEmailValid";
+            case PHONE_NUMBER:
+                return "isPhoneNumberValid";
+            default:
+                return "isAdult";
+        }
+    }
+}
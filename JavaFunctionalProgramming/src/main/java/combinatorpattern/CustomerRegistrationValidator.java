@@ -1,40 +1,60 @@
 package combinatorpattern;
 
-import java.time.LocalDate;
-import java.time.Period;
+import java.time.Clock;
+import java.util.EnumSet;
 import java.util.function.Function;
 
 public interface CustomerRegistrationValidator extends Function<Customer, CustomerRegistrationValidator.ValidationResult> {
 
+    //the built-in rules are BuiltInRule objects (the logic is in BuiltInRule.check), so ValidatorCompiler can recognize them
     static CustomerRegistrationValidator isEmailValid(){
-        //you can put some logic here
-        return customer ->
-                customer.getEmail().contains("@") ? ValidationResult.SUCCESS : ValidationResult.EMAIL_NOT_VALID;
+        return BuiltInRule.EMAIL_VALID;
     }
 
     static CustomerRegistrationValidator isPhoneNumberValid(){
-        return customer ->
-                customer.getPhoneNumber().startsWith("+48") ? ValidationResult.SUCCESS : ValidationResult.PHONE_NUMBER_NOT_VALID;
+        return BuiltInRule.PHONE_NUMBER_VALID;
     }
 
     static CustomerRegistrationValidator isAdult(){
-        return customer ->
-                Period.between(customer.getLocalDate(), LocalDate.now()).getYears() >= 18
-                        ? ValidationResult.SUCCESS : ValidationResult.IS_NOT_AN_ADULT;
+        return isAdult(Clock.systemDefaultZone());
     }
 
+    //same as Period.between(customer.getLocalDate(), LocalDate.now(clock)).getYears() >= 18, without a Period per customer
+    static CustomerRegistrationValidator isAdult(Clock clock){
+        return BuiltInRule.adult(AdultCutoff.of(clock));
+    }
+
+    //if result == success then the next validator's result, if not then pass actual result;
+    //the validators of both sides go into one flat ValidatorChain instead of a lambda around each and()
     default CustomerRegistrationValidator and (CustomerRegistrationValidator other){
-        return customer -> {
-            ValidationResult result = this.apply(customer);
-            //if result == success then SUCCESS if not then pass actual result
-            return result.equals(ValidationResult.SUCCESS) ? other.apply(customer) : result;
-        };
+        return ValidatorChain.of(this, other);
+    }
+
+    //runs both validators and returns every failure as a bit of a long mask instead of stopping at the first one
+    default MaskValidator andAlso (CustomerRegistrationValidator other){
+        return MaskValidator.of(this).andAlso(other);
     }
 
     enum  ValidationResult{
         SUCCESS,
         PHONE_NUMBER_NOT_VALID,
         EMAIL_NOT_VALID,
-        IS_NOT_AN_ADULT
+        IS_NOT_AN_ADULT;
+
+        //the bit of this result in a MaskValidator mask, 0 for SUCCESS
+        public long mask(){
+            return this == SUCCESS ? 0L : 1L << ordinal();
+        }
+
+        //the results whose bits are set, an empty set for 0 (SUCCESS)
+        public static EnumSet<ValidationResult> fromMask(long mask){
+            EnumSet<ValidationResult> results = EnumSet.noneOf(ValidationResult.class);
+            for (ValidationResult result : values()) {
+                if ((mask & result.mask()) != 0) {
+                    results.add(result);
+                }
+            }
+            return results;
+        }
     }
 }
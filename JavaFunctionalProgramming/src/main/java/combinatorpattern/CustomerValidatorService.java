@@ -1,10 +1,20 @@
 package combinatorpattern;
 
+import java.time.Clock;
 import java.time.LocalDate;
-import java.time.Period;
 
 public class CustomerValidatorService {
 
+    private final AdultCutoff adultCutoff;
+
+    public CustomerValidatorService() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public CustomerValidatorService(Clock clock) {
+        this.adultCutoff = AdultCutoff.of(clock);
+    }
+
     public boolean isCustomerEmailValid(String email){
         return email.contains("@");
     }
@@ -14,7 +24,7 @@ public class CustomerValidatorService {
     }
 
     public boolean isCustomerAdult(LocalDate localDate){
-        return Period.between(localDate, LocalDate.now()).getYears() >= 18;
+        return adultCutoff.isAdult(localDate);
     }
 
     public boolean isAllCustomerValid(Customer customer){
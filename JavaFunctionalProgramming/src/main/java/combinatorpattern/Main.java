@@ -1,6 +1,12 @@
 package combinatorpattern;
 
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static combinatorpattern.CustomerRegistrationValidator.*;
 
@@ -30,7 +36,75 @@ public class Main {
 //            throw new IllegalStateException(result.name());
 //        }
 
+        //Validating a whole batch at once, in parallel: how many customers failed and which ones
+        List<Customer> customers = List.of(
+                customer,
+                new Customer("Bob", "bob.gmail.com", "+48535326", LocalDate.of(1990, 5, 5)),
+                new Customer("Carol", "carol@gmail.com", "+44123456", LocalDate.of(1985, 3, 3)),
+                new Customer("Dave", "dave@gmail.com", "+48535327", LocalDate.now().minusYears(10)));
+        BatchValidator.Report report = BatchValidator.of(isEmailValid().and(isPhoneNumberValid()).and(isAdult()))
+                .validate(customers);
+        System.out.println("Batch validation: " + report);
+        System.out.println("Customers with invalid email: " + Arrays.toString(report.failures(ValidationResult.EMAIL_NOT_VALID)));
 
+        //The same rules, run in the order that rejects invalid customers cheapest; an invalid customer gets the
+        //failure of whichever rule rejected it first, not necessarily the one and() would report
+        AdaptiveValidator adaptive = AdaptiveValidator.anyFailure(isEmailValid(), isPhoneNumberValid(), isAdult());
+        System.out.println("Adaptive batch validation: " + BatchValidator.of(adaptive).validate(customers));
+
+        //The chain compiled into one loop over rule codes, same result
+        CustomerRegistrationValidator compiled = ValidatorCompiler.compile(isEmailValid().and(isPhoneNumberValid()).and(isAdult()));
+        System.out.println(compiled + ": " + compiled.apply(customer)); //compiled[isEmailValid, isPhoneNumberValid, isAdult]: SUCCESS
+
+        //All violated rules at once, as bits of a long, decoded into an EnumSet only when needed
+        Customer everythingWrong = new Customer("Eve", "eve.gmail.com", "+44535325", LocalDate.now().minusYears(10));
+        long failures = isEmailValid().andAlso(isPhoneNumberValid()).andAlso(isAdult()).validate(everythingWrong);
+        System.out.println("All failures: " + MaskValidator.decode(failures)); //[PHONE_NUMBER_NOT_VALID, EMAIL_NOT_VALID, IS_NOT_AN_ADULT]
+
+        //A custom rule chains as a lambda, the same way as with and()
+        MaskValidator withGmail = isEmailValid().andAlso(isPhoneNumberValid())
+                .andAlso(c -> c.getEmail().endsWith("@gmail.com") ? ValidationResult.SUCCESS : ValidationResult.EMAIL_NOT_VALID);
+        System.out.println("Valid with the custom rule: " + withGmail.isValid(customer)); //true
+
+        //The age rule with a fixed Clock: the day before and on the 18th birthday
+        ZoneId zone = ZoneId.of("Europe/Warsaw");
+        Clock dayBefore = Clock.fixed(LocalDate.of(2017, 12, 31).atStartOfDay(zone).toInstant(), zone);
+        Clock birthday = Clock.fixed(LocalDate.of(2018, 1, 1).atStartOfDay(zone).toInstant(), zone);
+        System.out.println("Adult the day before: " + isAdult(dayBefore).apply(customer)); //IS_NOT_AN_ADULT
+        System.out.println("Adult on the birthday: " + isAdult(birthday).apply(customer)); //SUCCESS
+
+        //The age rule against Period.between(...).getYears() >= 18 for every day of twelve years
+        adultCutoffCheck();
+    }
+
+    // birthdays around the cutoff and every 29 February, checked on each day from 2016 to 2027
+    static void adultCutoffCheck() {
+        ZoneId zone = ZoneId.of("Europe/Warsaw");
+        List<LocalDate> leapBirthdays = new ArrayList<>();
+        for (int year = 1996; year <= 2012; year += 4) {
+            leapBirthdays.add(LocalDate.of(year, 2, 29));
+        }
+        int checks = 0;
+        int differences = 0;
+        for (LocalDate today = LocalDate.of(2016, 1, 1); today.getYear() < 2028; today = today.plusDays(1)) {
+            Clock clock = Clock.fixed(today.atStartOfDay(zone).toInstant(), zone);
+            CustomerRegistrationValidator adult = isAdult(clock);
+            List<LocalDate> birthDates = new ArrayList<>(leapBirthdays);
+            for (int offset = -3; offset <= 3; offset++) {
+                birthDates.add(today.minusYears(18).plusDays(offset));
+            }
+            for (LocalDate birthDate : birthDates) {
+                boolean expected = Period.between(birthDate, today).getYears() >= 18;
+                boolean actual = adult.apply(new Customer("Check", "check@gmail.com", "+48535325", birthDate))
+                        == ValidationResult.SUCCESS;
+                checks++;
+                if (expected != actual) {
+                    differences++;
+                    System.out.println(birthDate + " on " + today + ": " + expected + " vs " + actual);
+                }
+            }
+        }
+        System.out.println(checks + " age checks, " + differences + " differences."); //0 differences
     }
 
 }
@@ -0,0 +1,53 @@
+package combinatorpattern;
+
+import java.util.Arrays;
+
+final class MaskChain implements MaskValidator {
+    // What andAlso and andAlsoMask return: the rules of both sides in one flat array (other MaskValidators in a second one),
+    // every rule runs and the masks of the results are or-ed.
+
+    private final CustomerRegistrationValidator[] rules;
+    private final MaskValidator[] others;
+
+    MaskChain(CustomerRegistrationValidator[] rules) {
+        this(rules, new MaskValidator[0]);
+    }
+
+    private MaskChain(CustomerRegistrationValidator[] rules, MaskValidator[] others) {
+        this.rules = rules;
+        this.others = others;
+    }
+
+    static MaskChain of(MaskValidator first, MaskValidator second) {
+        MaskChain left = chain(first);
+        MaskChain right = chain(second);
+        CustomerRegistrationValidator[] rules = Arrays.copyOf(left.rules, left.rules.length + right.rules.length);
+        System.arraycopy(right.rules, 0, rules, left.rules.length, right.rules.length);
+        MaskValidator[] others = Arrays.copyOf(left.others, left.others.length + right.others.length);
+        System.arraycopy(right.others, 0, others, left.others.length, right.others.length);
+        return new MaskChain(rules, others);
+    }
+
+    private static MaskChain chain(MaskValidator validator) {
+        return validator instanceof MaskChain
+                ? (MaskChain) validator
+                : new MaskChain(new CustomerRegistrationValidator[0], new MaskValidator[] {validator});
+    }
+
+    @Override
+    public long validate(Customer customer) {
+        long mask = 0;
+        for (CustomerRegistrationValidator rule : rules) {
+            mask |= rule.apply(customer).mask();
+        }
+        for (MaskValidator other : others) {
+            mask |= other.validate(customer);
+        }
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        return "andAlso" + Arrays.toString(rules) + (others.length == 0 ? "" : Arrays.toString(others));
+    }
+}
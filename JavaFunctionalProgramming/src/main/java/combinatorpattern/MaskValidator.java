@@ -0,0 +1,47 @@
+package combinatorpattern;
+
+import java.util.EnumSet;
+
+import combinatorpattern.CustomerRegistrationValidator.ValidationResult;
+
+@FunctionalInterface
+public interface MaskValidator {
+    // Every violated rule instead of the first one, without a collection per customer:
+    //
+    //   long failures = isEmailValid().andAlso(isPhoneNumberValid()).andAlso(isAdult()).validate(customer);
+    //   if (failures != 0) {
+    //       EnumSet<ValidationResult> violations = MaskValidator.decode(failures); // only when someone asks
+    //   }
+    //
+    // Each ValidationResult but SUCCESS is one bit (ValidationResult.mask()), all rules run and their bits are
+    // or-ed into a long, 0 means valid. andAlso chains stay one flat array of rules, like and() chains.
+    // A rule may itself be an and() chain: it contributes the bit of its first failure.
+    // andAlso takes rules only, so a lambda rule chains like with and(): .andAlso(c -> ...);
+    // two MaskValidators are joined with andAlsoMask.
+
+    long validate(Customer customer);
+
+    static MaskValidator of(CustomerRegistrationValidator rule) {
+        return new MaskChain(new CustomerRegistrationValidator[] {rule});
+    }
+
+    static MaskValidator allOf(CustomerRegistrationValidator... rules) {
+        return new MaskChain(rules.clone());
+    }
+
+    default MaskValidator andAlso(CustomerRegistrationValidator other) {
+        return andAlsoMask(of(other));
+    }
+
+    default MaskValidator andAlsoMask(MaskValidator other) {
+        return MaskChain.of(this, other);
+    }
+
+    default boolean isValid(Customer customer) {
+        return validate(customer) == 0;
+    }
+
+    static EnumSet<ValidationResult> decode(long mask) {
+        return ValidationResult.fromMask(mask);
+    }
+}
@@ -0,0 +1,46 @@
+package combinatorpattern;
+
+import java.util.Arrays;
+
+import combinatorpattern.CustomerRegistrationValidator.ValidationResult;
+
+final class ValidatorChain implements CustomerRegistrationValidator {
+    // What and() returns: the validators of both sides in one flat array instead of a lambda wrapping a lambda,
+    // a.and(b).and(c) is [a, b, c]. Runs them in order until the first one that does not return SUCCESS.
+
+    final CustomerRegistrationValidator[] parts;
+
+    private ValidatorChain(CustomerRegistrationValidator[] parts) {
+        this.parts = parts;
+    }
+
+    static ValidatorChain of(CustomerRegistrationValidator first, CustomerRegistrationValidator second) {
+        CustomerRegistrationValidator[] left = parts(first);
+        CustomerRegistrationValidator[] right = parts(second);
+        CustomerRegistrationValidator[] parts = Arrays.copyOf(left, left.length + right.length);
+        System.arraycopy(right, 0, parts, left.length, right.length);
+        return new ValidatorChain(parts);
+    }
+
+    static CustomerRegistrationValidator[] parts(CustomerRegistrationValidator validator) {
+        return validator instanceof ValidatorChain
+                ? ((ValidatorChain) validator).parts
+                : new CustomerRegistrationValidator[] {validator};
+    }
+
+    @Override
+    public ValidationResult apply(Customer customer) {
+        for (CustomerRegistrationValidator part : parts) {
+            ValidationResult result = part.apply(customer);
+            if (result != ValidationResult.SUCCESS) {
+                return result;
+            }
+        }
+        return ValidationResult.SUCCESS;
+    }
+
+    @Override
+    public String toString() {
+        return "and" + Arrays.toString(parts);
+    }
+}
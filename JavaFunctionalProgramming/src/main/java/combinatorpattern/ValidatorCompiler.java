@@ -0,0 +1,71 @@
+package combinatorpattern;
+
+import java.util.Arrays;
+
+import combinatorpattern.CustomerRegistrationValidator.ValidationResult;
+
+public final class ValidatorCompiler {
+    // Turns a chain built with and() into one flat validator:
+    //
+    //   CustomerRegistrationValidator compiled = ValidatorCompiler.compile(isEmailValid().and(isPhoneNumberValid()).and(isAdult()));
+    //
+    // The chain becomes an int[] of rule codes run by a single loop with a switch, so checking a customer makes
+    // no interface call at all for the built-in rules - one small method the JIT inlines whatever the depth.
+    // Any other validator (a lambda, an AdaptiveValidator ...) stays a call in its place of the chain.
+    // The compiled validator returns the same ValidationResult as the chain for every customer.
+
+    static final int CALL = -1;
+
+    private ValidatorCompiler() {}
+
+    public static CustomerRegistrationValidator compile(CustomerRegistrationValidator validator) {
+        CustomerRegistrationValidator[] steps = ValidatorChain.parts(validator);
+        int[] codes = new int[steps.length];
+        AdultCutoff[] cutoffs = new AdultCutoff[steps.length];
+        CustomerRegistrationValidator[] calls = new CustomerRegistrationValidator[steps.length];
+        for (int i = 0; i < codes.length; i++) {
+            CustomerRegistrationValidator step = steps[i];
+            if (step instanceof BuiltInRule) {
+                codes[i] = ((BuiltInRule) step).code;
+                cutoffs[i] = ((BuiltInRule) step).cutoff;
+            } else {
+                codes[i] = CALL;
+                calls[i] = step;
+            }
+        }
+        return new Compiled(codes, cutoffs, calls, Arrays.toString(steps));
+    }
+
+    private static final class Compiled implements CustomerRegistrationValidator {
+        private final int[] codes;
+        private final AdultCutoff[] cutoffs;
+        private final CustomerRegistrationValidator[] calls;
+        private final String description;
+
+        Compiled(int[] codes, AdultCutoff[] cutoffs, CustomerRegistrationValidator[] calls, String description) {
+            this.codes = codes;
+            this.cutoffs = cutoffs;
+            this.calls = calls;
+            this.description = description;
+        }
+
+        @Override
+        public ValidationResult apply(Customer customer) {
+            for (int i = 0; i < codes.length; i++) {
+                int code = codes[i];
+                ValidationResult result = code == CALL
+                        ? calls[i].apply(customer)
+                        : BuiltInRule.check(code, cutoffs[i], customer);
+                if (result != ValidationResult.SUCCESS) {
+                    return result;
+                }
+            }
+            return ValidationResult.SUCCESS;
+        }
+
+        @Override
+        public String toString() {
+            return "compiled" + description;
+        }
+    }
+}